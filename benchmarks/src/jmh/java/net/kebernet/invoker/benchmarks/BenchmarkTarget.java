@@ -0,0 +1,66 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.benchmarks;
+
+import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.annotation.Parameter;
+
+/**
+ * A small handler type with an exact match method, an overloaded invocation name and methods
+ * with primitive parameters and results.
+ */
+public class BenchmarkTarget {
+
+    private long total;
+
+    @Invokable
+    public String concat(@Parameter(value = "first", required = true) String first,
+                         @Parameter(value = "second", required = true) String second) {
+        return first + second;
+    }
+
+    @Invokable(invocationName = "format")
+    public String format1(@Parameter(value = "value", required = true) String value) {
+        return value;
+    }
+
+    @Invokable(invocationName = "format")
+    public String format2(@Parameter(value = "value", required = true) String value,
+                          @Parameter("width") Integer width) {
+        return value;
+    }
+
+    @Invokable(invocationName = "format")
+    public String format3(@Parameter(value = "value", required = true) String value,
+                          @Parameter("width") Integer width,
+                          @Parameter("padding") Character padding) {
+        return value;
+    }
+
+    @Invokable
+    public void accumulate(@Parameter("value") long value) {
+        total += value;
+    }
+
+    @Invokable
+    public long next(@Parameter("value") long value) {
+        return value + 1;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
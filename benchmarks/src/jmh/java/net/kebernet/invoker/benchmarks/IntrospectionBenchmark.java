@@ -0,0 +1,71 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.benchmarks;
+
+import net.kebernet.invoker.runtime.InvocationEngine;
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.impl.IntrospectionData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold cost of introspecting a type, which is what the first invocation of an
+ * unregistered type pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IntrospectionBenchmark {
+
+    @Param({"REFLECTION", "METHOD_HANDLE"})
+    public InvocationEngine engine;
+
+    private InvokerOptions options;
+
+    @Setup
+    public void setup() {
+        options = InvokerOptions.builder()
+                .invocationEngine(engine)
+                .build();
+    }
+
+    @Benchmark
+    public IntrospectionData smallType() {
+        return new IntrospectionData(BenchmarkTarget.class, options);
+    }
+
+    @Benchmark
+    public IntrospectionData largeType() {
+        return new IntrospectionData(LargeTarget.class, options);
+    }
+
+    /**
+     * Baseline: copying the public methods of the large type, which the JDK caches after the first call.
+     */
+    @Benchmark
+    public Method[] largeTypeGetMethods() {
+        return LargeTarget.class.getMethods();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.benchmarks;
+
+import net.kebernet.invoker.runtime.ArgumentFrame;
+import net.kebernet.invoker.runtime.BoundInvocation;
+import net.kebernet.invoker.runtime.InvocationEngine;
+import net.kebernet.invoker.runtime.Invoker;
+import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.ParameterValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures warm invocations by name against a registered type, beside a direct call and a raw
+ * Method.invoke of the same method as baselines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InvokeBenchmark {
+
+    @Param({"REFLECTION", "METHOD_HANDLE"})
+    public InvocationEngine engine;
+
+    private Invoker invoker;
+    private BenchmarkTarget target;
+    private Method concat;
+    private List<ParameterValue> exact;
+    private List<ParameterValue> overloaded;
+    private List<ParameterValue> miss;
+    private Map<String, Object> map;
+    private ArgumentFrame frame;
+    private BoundInvocation bound;
+    private ArgumentFrame boxedFrame;
+    private int boxedSlot;
+    private ArgumentFrame primitiveFrame;
+    private int primitiveSlot;
+    private long counter;
+
+    @Setup
+    public void setup() throws Exception {
+        invoker = new Invoker(InvokerOptions.builder()
+                .invocationEngine(engine)
+                .build());
+        invoker.registerType(BenchmarkTarget.class);
+        target = new BenchmarkTarget();
+        concat = BenchmarkTarget.class.getMethod("concat", String.class, String.class);
+        exact = Arrays.asList(
+                new ParameterValue("first", "a"),
+                new ParameterValue("second", "b"));
+        overloaded = Arrays.asList(
+                new ParameterValue("value", "a"),
+                new ParameterValue("width", 4));
+        miss = Arrays.asList(
+                new ParameterValue("first", "a"),
+                new ParameterValue("third", "c"));
+        map = new HashMap<>();
+        map.put("first", "a");
+        map.put("second", "b");
+        frame = new ArgumentFrame();
+        frame.add("first", "a");
+        frame.add("second", "b");
+        bound = invoker.bind(BenchmarkTarget.class, "concat",
+                new String[]{"first", "second"}, new Class[]{String.class, String.class});
+        boxedFrame = new ArgumentFrame();
+        boxedSlot = boxedFrame.add("value", 0L);
+        primitiveFrame = new ArgumentFrame();
+        primitiveSlot = primitiveFrame.addLong("value", 0L);
+    }
+
+    @Benchmark
+    public String directCall() {
+        return target.concat("a", "b");
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception {
+        return concat.invoke(target, "a", "b");
+    }
+
+    @Benchmark
+    public String invokeExact() throws InvokerException {
+        return invoker.invoke(target, "concat", exact);
+    }
+
+    @Benchmark
+    public String invokeOverloaded() throws InvokerException {
+        return invoker.invoke(target, "format", overloaded);
+    }
+
+    @Benchmark
+    public String invokeMap() throws InvokerException {
+        return invoker.invoke(target, "concat", map);
+    }
+
+    @Benchmark
+    public String invokeFrame() throws InvokerException {
+        return invoker.invoke(target, "concat", frame);
+    }
+
+    @Benchmark
+    public String invokeBound() throws InvokerException {
+        return bound.invoke(target, "a", "b");
+    }
+
+    @Benchmark
+    public Object invokeMiss() {
+        try {
+            return invoker.invoke(target, "concat", miss);
+        } catch (InvokerException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object invokeBoxedFrame() throws InvokerException {
+        boxedFrame.set(boxedSlot, counter++);
+        return invoker.invoke(target, "accumulate", boxedFrame);
+    }
+
+    @Benchmark
+    public Object invokePrimitiveFrame() throws InvokerException {
+        primitiveFrame.setLong(primitiveSlot, counter++);
+        return invoker.invoke(target, "accumulate", primitiveFrame);
+    }
+
+    @Benchmark
+    public Object invokeBoxedResult() throws InvokerException {
+        primitiveFrame.setLong(primitiveSlot, counter++);
+        return invoker.invoke(target, "next", primitiveFrame);
+    }
+
+    @Benchmark
+    public long invokeTypedResult() throws InvokerException {
+        primitiveFrame.setLong(primitiveSlot, counter++);
+        return invoker.invokeLong(target, "next", primitiveFrame);
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.benchmarks;
+
+import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.annotation.Parameter;
+
+/**
+ * A large handler type: 64 invocation names with three overloads each.
+ */
+@SuppressWarnings("unused")
+public class LargeTarget {
+
+    @Invokable(invocationName = "op00")
+    public String op00a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op00")
+    public String op00b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op00")
+    public String op00c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op01")
+    public String op01a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op01")
+    public String op01b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op01")
+    public String op01c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op02")
+    public String op02a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op02")
+    public String op02b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op02")
+    public String op02c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op03")
+    public String op03a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op03")
+    public String op03b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op03")
+    public String op03c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op04")
+    public String op04a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op04")
+    public String op04b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op04")
+    public String op04c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op05")
+    public String op05a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op05")
+    public String op05b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op05")
+    public String op05c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op06")
+    public String op06a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op06")
+    public String op06b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op06")
+    public String op06c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op07")
+    public String op07a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op07")
+    public String op07b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op07")
+    public String op07c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op08")
+    public String op08a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op08")
+    public String op08b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op08")
+    public String op08c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op09")
+    public String op09a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op09")
+    public String op09b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op09")
+    public String op09c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op10")
+    public String op10a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op10")
+    public String op10b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op10")
+    public String op10c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op11")
+    public String op11a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op11")
+    public String op11b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op11")
+    public String op11c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op12")
+    public String op12a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op12")
+    public String op12b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op12")
+    public String op12c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op13")
+    public String op13a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op13")
+    public String op13b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op13")
+    public String op13c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op14")
+    public String op14a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op14")
+    public String op14b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op14")
+    public String op14c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op15")
+    public String op15a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op15")
+    public String op15b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op15")
+    public String op15c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op16")
+    public String op16a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op16")
+    public String op16b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op16")
+    public String op16c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op17")
+    public String op17a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op17")
+    public String op17b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op17")
+    public String op17c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op18")
+    public String op18a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op18")
+    public String op18b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op18")
+    public String op18c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op19")
+    public String op19a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op19")
+    public String op19b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op19")
+    public String op19c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op20")
+    public String op20a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op20")
+    public String op20b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op20")
+    public String op20c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op21")
+    public String op21a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op21")
+    public String op21b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op21")
+    public String op21c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op22")
+    public String op22a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op22")
+    public String op22b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op22")
+    public String op22c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op23")
+    public String op23a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op23")
+    public String op23b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op23")
+    public String op23c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op24")
+    public String op24a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op24")
+    public String op24b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op24")
+    public String op24c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op25")
+    public String op25a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op25")
+    public String op25b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op25")
+    public String op25c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op26")
+    public String op26a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op26")
+    public String op26b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op26")
+    public String op26c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op27")
+    public String op27a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op27")
+    public String op27b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op27")
+    public String op27c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op28")
+    public String op28a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op28")
+    public String op28b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op28")
+    public String op28c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op29")
+    public String op29a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op29")
+    public String op29b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op29")
+    public String op29c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op30")
+    public String op30a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op30")
+    public String op30b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op30")
+    public String op30c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op31")
+    public String op31a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op31")
+    public String op31b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op31")
+    public String op31c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op32")
+    public String op32a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op32")
+    public String op32b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op32")
+    public String op32c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op33")
+    public String op33a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op33")
+    public String op33b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op33")
+    public String op33c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op34")
+    public String op34a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op34")
+    public String op34b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op34")
+    public String op34c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op35")
+    public String op35a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op35")
+    public String op35b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op35")
+    public String op35c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op36")
+    public String op36a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op36")
+    public String op36b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op36")
+    public String op36c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op37")
+    public String op37a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op37")
+    public String op37b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op37")
+    public String op37c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op38")
+    public String op38a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op38")
+    public String op38b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op38")
+    public String op38c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op39")
+    public String op39a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op39")
+    public String op39b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op39")
+    public String op39c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op40")
+    public String op40a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op40")
+    public String op40b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op40")
+    public String op40c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op41")
+    public String op41a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op41")
+    public String op41b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op41")
+    public String op41c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op42")
+    public String op42a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op42")
+    public String op42b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op42")
+    public String op42c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op43")
+    public String op43a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op43")
+    public String op43b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op43")
+    public String op43c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op44")
+    public String op44a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op44")
+    public String op44b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op44")
+    public String op44c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op45")
+    public String op45a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op45")
+    public String op45b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op45")
+    public String op45c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op46")
+    public String op46a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op46")
+    public String op46b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op46")
+    public String op46c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op47")
+    public String op47a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op47")
+    public String op47b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op47")
+    public String op47c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op48")
+    public String op48a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op48")
+    public String op48b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op48")
+    public String op48c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op49")
+    public String op49a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op49")
+    public String op49b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op49")
+    public String op49c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op50")
+    public String op50a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op50")
+    public String op50b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op50")
+    public String op50c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op51")
+    public String op51a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op51")
+    public String op51b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op51")
+    public String op51c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op52")
+    public String op52a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op52")
+    public String op52b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op52")
+    public String op52c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op53")
+    public String op53a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op53")
+    public String op53b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op53")
+    public String op53c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op54")
+    public String op54a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op54")
+    public String op54b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op54")
+    public String op54c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op55")
+    public String op55a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op55")
+    public String op55b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op55")
+    public String op55c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op56")
+    public String op56a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op56")
+    public String op56b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op56")
+    public String op56c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op57")
+    public String op57a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op57")
+    public String op57b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op57")
+    public String op57c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op58")
+    public String op58a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op58")
+    public String op58b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op58")
+    public String op58c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op59")
+    public String op59a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op59")
+    public String op59b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op59")
+    public String op59c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op60")
+    public String op60a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op60")
+    public String op60b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op60")
+    public String op60c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op61")
+    public String op61a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op61")
+    public String op61b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op61")
+    public String op61c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op62")
+    public String op62a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op62")
+    public String op62b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op62")
+    public String op62c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+
+    @Invokable(invocationName = "op63")
+    public String op63a(@Parameter(value = "value", required = true) String value) { return value; }
+    @Invokable(invocationName = "op63")
+    public String op63b(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count) { return value; }
+    @Invokable(invocationName = "op63")
+    public String op63c(@Parameter(value = "value", required = true) String value, @Parameter("count") Integer count, @Parameter("flag") Boolean flag) { return value; }
+}
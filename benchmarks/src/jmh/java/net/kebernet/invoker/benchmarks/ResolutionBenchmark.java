@@ -0,0 +1,73 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.benchmarks;
+
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.ParameterValue;
+import net.kebernet.invoker.runtime.impl.IntrospectionData;
+import net.kebernet.invoker.runtime.impl.InvokableMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving an overloaded invocation name, with the resolution cache off to show the cost
+ * of a miss and on to show a hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResolutionBenchmark {
+
+    @Param({"0", "1024"})
+    public int resolutionCacheSize;
+
+    private IntrospectionData data;
+    private List<ParameterValue> shortest;
+    private List<ParameterValue> longest;
+
+    @Setup
+    public void setup() {
+        data = new IntrospectionData(LargeTarget.class, InvokerOptions.builder()
+                .resolutionCacheSize(resolutionCacheSize)
+                .build());
+        shortest = Arrays.asList(new ParameterValue("value", "a"));
+        longest = Arrays.asList(
+                new ParameterValue("flag", true),
+                new ParameterValue("count", 1),
+                new ParameterValue("value", "a"));
+    }
+
+    @Benchmark
+    public Optional<InvokableMethod> resolveShortest() {
+        return data.bestMatch("op00", shortest);
+    }
+
+    @Benchmark
+    public Optional<InvokableMethod> resolveLongest() {
+        return data.bestMatch("op00", longest);
+    }
+}
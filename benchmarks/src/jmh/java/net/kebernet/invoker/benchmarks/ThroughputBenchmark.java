@@ -0,0 +1,90 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.benchmarks;
+
+import net.kebernet.invoker.runtime.Invoker;
+import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.ParameterValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a single shared Invoker as the number of calling threads grows, to
+ * show contention in its caches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ThroughputBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedInvoker {
+        private Invoker invoker;
+
+        @Setup
+        public void setup() {
+            invoker = new Invoker();
+            invoker.registerType(BenchmarkTarget.class);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        private BenchmarkTarget target;
+        private List<ParameterValue> values;
+
+        @Setup
+        public void setup() {
+            target = new BenchmarkTarget();
+            values = Arrays.asList(
+                    new ParameterValue("value", "a"),
+                    new ParameterValue("width", 4));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threads1(SharedInvoker shared, Caller caller) throws InvokerException {
+        return shared.invoker.invoke(caller.target, "format", caller.values);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public String threads2(SharedInvoker shared, Caller caller) throws InvokerException {
+        return shared.invoker.invoke(caller.target, "format", caller.values);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threads4(SharedInvoker shared, Caller caller) throws InvokerException {
+        return shared.invoker.invoke(caller.target, "format", caller.values);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String threadsMax(SharedInvoker shared, Caller caller) throws InvokerException {
+        return shared.invoker.invoke(caller.target, "format", caller.values);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The construction of the IntrospectionData for a type.
+ */
+@Name(IntrospectionEvent.NAME)
+@Label("Invoker Introspection")
+@Category("Invoker")
+@Description("Reflection over a type to find its invokable methods")
+@StackTrace(false)
+public final class IntrospectionEvent extends Event {
+
+    public static final String NAME = "net.kebernet.invoker.Introspection";
+
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Method Count")
+    int methodCount;
+}
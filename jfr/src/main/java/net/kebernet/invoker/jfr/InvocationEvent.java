@@ -0,0 +1,55 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A call to an invokable method, or a failed invocation.
+ */
+@Name(InvocationEvent.NAME)
+@Label("Invoker Invocation")
+@Category("Invoker")
+@Description("A call through the Invoker, or an invocation that failed to resolve")
+@StackTrace(false)
+@Threshold("20 ms")
+public final class InvocationEvent extends Event {
+
+    public static final String NAME = "net.kebernet.invoker.Invocation";
+
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Invocation Name")
+    String invocationName;
+
+    @Label("Method")
+    @Description("The Java method called, or null if no method matched")
+    String method;
+
+    @Label("Exception")
+    @Description("The exception thrown by the method or the resolution, or null if the call returned")
+    Class<?> exception;
+
+    @Label("Message")
+    String message;
+}
@@ -0,0 +1,156 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.jfr;
+
+import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.impl.InvokableMethod;
+import net.kebernet.invoker.runtime.spi.InvokerListener;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+
+/**
+ * An InvokerListener that records JDK Flight Recorder events. Each event is begun when the runtime
+ * starts the introspection, resolution or call, so its JFR duration is the time the operation took.
+ * The JFR {@code enabled} and {@code threshold} settings apply: introspections are recorded by
+ * default, and resolutions and calls, including failed ones, when they take at least 20 ms, so the
+ * listener can stay installed in production.
+ * <p>
+ * Nothing is allocated for an event type that no recording has enabled. The started events are kept
+ * per thread until the runtime reports the outcome.
+ * </p>
+ */
+public class JfrListener implements InvokerListener {
+
+    private static final EventType INTROSPECTION = EventType.getEventType(IntrospectionEvent.class);
+    private static final EventType RESOLUTION = EventType.getEventType(ResolutionEvent.class);
+    private static final EventType INVOCATION = EventType.getEventType(InvocationEvent.class);
+    /**
+     * Stands in for an event that was not begun because its type was disabled, to keep the starts and
+     * completions paired.
+     */
+    private static final Event DISABLED = new IntrospectionEvent();
+
+    private final ThreadLocal<Started> started = ThreadLocal.withInitial(Started::new);
+
+    @Override
+    public void introspecting(@Nonnull Class type) {
+        started.get().introspections.push(INTROSPECTION.isEnabled() ? begin(new IntrospectionEvent()) : DISABLED);
+    }
+
+    @Override
+    public void introspected(@Nonnull Class type, int methodCount, long nanos) {
+        IntrospectionEvent event = (IntrospectionEvent) end(started.get().introspections);
+        if(event != null){
+            event.type = type;
+            event.methodCount = methodCount;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void resolving(@Nonnull Class type, @Nonnull String invocationName) {
+        started.get().resolutions.push(RESOLUTION.isEnabled() ? begin(new ResolutionEvent()) : DISABLED);
+    }
+
+    @Override
+    public void resolved(@Nonnull Class type, @Nonnull String invocationName, int candidateCount, boolean cached, boolean matched, long nanos) {
+        ResolutionEvent event = (ResolutionEvent) end(started.get().resolutions);
+        if(event != null){
+            event.type = type;
+            event.invocationName = invocationName;
+            event.candidateCount = candidateCount;
+            event.memoized = cached;
+            event.matched = matched;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void invoking(@Nonnull Class type, @Nonnull InvokableMethod method) {
+        started.get().invocations.push(INVOCATION.isEnabled() ? begin(new InvocationEvent()) : DISABLED);
+    }
+
+    @Override
+    public void invoked(@Nonnull Class type, @Nonnull InvokableMethod method, long nanos) {
+        InvocationEvent event = (InvocationEvent) end(started.get().invocations);
+        if(event != null){
+            event.type = type;
+            event.invocationName = method.getName();
+            event.method = method.getMethodName();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void failed(@Nonnull Class type, @Nonnull String invocationName, @Nullable InvokableMethod method, long nanos, @Nonnull InvokerException exception) {
+        InvocationEvent event;
+        if(method != null){
+            event = (InvocationEvent) end(started.get().invocations);
+        } else {
+            // Nothing was called, so the event has no duration; the resolution has its own event.
+            event = INVOCATION.isEnabled() ? new InvocationEvent() : null;
+            if(event != null && !event.shouldCommit()){
+                event = null;
+            }
+        }
+        if(event == null){
+            return;
+        }
+        // Report what the method threw rather than the wrapper around it.
+        Throwable cause = exception;
+        while(cause.getCause() != null){
+            cause = cause.getCause();
+        }
+        event.type = type;
+        event.invocationName = invocationName;
+        event.method = method == null ? null : method.getMethodName();
+        event.exception = cause.getClass();
+        event.message = cause.getMessage();
+        event.commit();
+    }
+
+    private static Event begin(Event event) {
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the innermost started event of a kind.
+     * @return The event, or null if it was not begun or is under the threshold.
+     */
+    private static Event end(ArrayDeque<Event> events) {
+        Event event = events.poll();
+        if(event == null || event == DISABLED){
+            return null;
+        }
+        event.end();
+        return event.shouldCommit() ? event : null;
+    }
+
+    /**
+     * The events a thread has begun and not yet ended, innermost first.
+     */
+    private static final class Started {
+        private final ArrayDeque<Event> introspections = new ArrayDeque<>();
+        private final ArrayDeque<Event> resolutions = new ArrayDeque<>();
+        private final ArrayDeque<Event> invocations = new ArrayDeque<>();
+    }
+}
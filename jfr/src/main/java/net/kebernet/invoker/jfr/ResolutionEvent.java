@@ -0,0 +1,54 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The resolution of an invocation name and parameter shape to a method.
+ */
+@Name(ResolutionEvent.NAME)
+@Label("Invoker Resolution")
+@Category("Invoker")
+@Description("Matching an invocation name and parameter shape to the best method")
+@StackTrace(false)
+@Threshold("20 ms")
+public final class ResolutionEvent extends Event {
+
+    public static final String NAME = "net.kebernet.invoker.Resolution";
+
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Invocation Name")
+    String invocationName;
+
+    @Label("Candidate Count")
+    int candidateCount;
+
+    @Label("Memoized")
+    @Description("Whether the resolution came from the resolution cache")
+    boolean memoized;
+
+    @Label("Matched")
+    boolean matched;
+}
@@ -0,0 +1,188 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.annotation.Parameter;
+import net.kebernet.invoker.runtime.Invoker;
+import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.ParameterValue;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JfrListenerTest {
+
+    @Test
+    public void recordsEvents() throws Exception {
+        File file = File.createTempFile("invoker", ".jfr");
+        try(Recording recording = new Recording()){
+            recording.enable(IntrospectionEvent.NAME);
+            recording.enable(ResolutionEvent.NAME).withoutThreshold();
+            recording.enable(InvocationEvent.NAME).withThreshold(Duration.ofDays(1));
+            recording.start();
+
+            Invoker invoker = new Invoker(InvokerOptions.builder()
+                    .listener(new JfrListener())
+                    .build());
+            Target target = new Target();
+            invoker.invoke(target, "echo", Collections.singletonList(new ParameterValue("value", "a")));
+            try {
+                invoker.invoke(target, "boom", Collections.singletonList(new ParameterValue("value", "a")));
+                fail("Expected an InvokerException");
+            } catch (InvokerException e) {
+                // expected
+            }
+
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            List<RecordedEvent> introspections = named(events, IntrospectionEvent.NAME);
+            assertEquals(1, introspections.size());
+            assertEquals(3, introspections.get(0).getInt("methodCount"));
+
+            List<RecordedEvent> resolutions = named(events, ResolutionEvent.NAME);
+            assertEquals(2, resolutions.size());
+            assertEquals("echo", resolutions.get(0).getString("invocationName"));
+            assertEquals(1, resolutions.get(0).getInt("candidateCount"));
+            assertFalse(resolutions.get(0).getBoolean("memoized"));
+
+            // Both calls are under the threshold of the recording.
+            assertTrue(named(events, InvocationEvent.NAME).isEmpty());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void recordsDurations() throws Exception {
+        File file = File.createTempFile("invoker", ".jfr");
+        try(Recording recording = new Recording()){
+            recording.enable(ResolutionEvent.NAME);
+            recording.enable(InvocationEvent.NAME);
+            recording.start();
+
+            Invoker invoker = new Invoker(InvokerOptions.builder()
+                    .listener(new JfrListener())
+                    .build());
+            Target target = new Target();
+            invoker.invoke(target, "echo", Collections.singletonList(new ParameterValue("value", "a")));
+            invoker.invoke(target, "sleep", Collections.singletonList(new ParameterValue("millis", 50L)));
+            try {
+                invoker.invoke(target, "boom", Collections.singletonList(new ParameterValue("value", "a")));
+                fail("Expected an InvokerException");
+            } catch (InvokerException e) {
+                // expected
+            }
+
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        try {
+            // Only the call that takes longer than the default 20 ms threshold is recorded.
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            assertTrue(named(events, ResolutionEvent.NAME).isEmpty());
+            List<RecordedEvent> invocations = named(events, InvocationEvent.NAME);
+            assertEquals(1, invocations.size());
+            assertEquals("sleep", invocations.get(0).getString("method"));
+            assertNull(invocations.get(0).getClass("exception"));
+            assertTrue(invocations.get(0).getDuration().toMillis() >= 50);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void recordsFailures() throws Exception {
+        File file = File.createTempFile("invoker", ".jfr");
+        try(Recording recording = new Recording()){
+            recording.enable(InvocationEvent.NAME).withoutThreshold();
+            recording.start();
+
+            Invoker invoker = new Invoker(InvokerOptions.builder()
+                    .listener(new JfrListener())
+                    .build());
+            try {
+                invoker.invoke(new Target(), "boom", Collections.singletonList(new ParameterValue("value", "a")));
+                fail("Expected an InvokerException");
+            } catch (InvokerException e) {
+                // expected
+            }
+
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        try {
+            List<RecordedEvent> invocations = named(RecordingFile.readAllEvents(file.toPath()), InvocationEvent.NAME);
+            assertEquals(1, invocations.size());
+            assertEquals("boom", invocations.get(0).getString("method"));
+            assertEquals(IllegalStateException.class.getName(), invocations.get(0).getClass("exception").getName());
+            assertEquals("boom!", invocations.get(0).getString("message"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        // Without a recording nothing is committed and nothing fails.
+        Invoker invoker = new Invoker(InvokerOptions.builder()
+                .listener(new JfrListener())
+                .build());
+        assertEquals("a", invoker.invoke(new Target(), "echo", Collections.singletonList(new ParameterValue("value", "a"))));
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+    public static class Target {
+
+        @Invokable
+        public String echo(@Parameter("value") String value) {
+            return value;
+        }
+
+        @Invokable
+        public long sleep(@Parameter("millis") long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return millis;
+        }
+
+        @Invokable
+        public String boom(@Parameter("value") String value) {
+            throw new IllegalStateException("boom!");
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.processor;
+
+import net.kebernet.invoker.annotation.DefaultInvokable;
+import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.annotation.Parameter;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates an {@code InvokerRegistry} for every concrete type with invokable methods, and lists the
+ * generated registries in {@code META-INF/services} so the runtime can find them with ServiceLoader.
+ * <p>
+ * The registry applies the same rules as the runtime introspection: every public method that is not
+ * declared in a java.* or javax.* type is considered, and it is invokable if it has an {@link Invokable}
+ * annotation with a value of true, or no annotation and a {@link DefaultInvokable} type. Parameter names
+ * come from {@link Parameter}, or the source name of the parameter when it is not annotated.
+ * </p>
+ */
+@SupportedAnnotationTypes({
+        "net.kebernet.invoker.annotation.Invokable",
+        "net.kebernet.invoker.annotation.DefaultInvokable"
+})
+public class InvokerProcessor extends AbstractProcessor {
+
+    /**
+     * The suffix added to the flattened name of a type for its generated registry.
+     */
+    public static final String REGISTRY_SUFFIX = "_InvokerRegistry";
+
+    static final String SERVICE_FILE = "META-INF/services/net.kebernet.invoker.runtime.spi.InvokerRegistry";
+
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if(roundEnv.processingOver()){
+            writeServiceFile();
+            return false;
+        }
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for(Element element : roundEnv.getElementsAnnotatedWith(DefaultInvokable.class)){
+            if(element.getKind() == ElementKind.CLASS){
+                types.add((TypeElement) element);
+            }
+        }
+        for(Element element : roundEnv.getElementsAnnotatedWith(Invokable.class)){
+            if(element.getEnclosingElement().getKind() == ElementKind.CLASS){
+                types.add((TypeElement) element.getEnclosingElement());
+            }
+        }
+        for(TypeElement type : types){
+            if(isAccessible(type) && !type.getModifiers().contains(Modifier.ABSTRACT)){
+                generate(type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether generated code in the same package can refer to the type.
+     */
+    private static boolean isAccessible(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            TypeElement current = (TypeElement) element;
+            if(current.getModifiers().contains(Modifier.PRIVATE) ||
+                    current.getNestingKind() == NestingKind.LOCAL ||
+                    current.getNestingKind() == NestingKind.ANONYMOUS){
+                return false;
+            }
+            element = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        DefaultInvokable defaultInvokable = type.getAnnotation(DefaultInvokable.class);
+        boolean isDefaultInvokable = defaultInvokable != null && defaultInvokable.value();
+        List<ExecutableElement> methods = new ArrayList<>();
+        for(ExecutableElement method : publicMethods(type)){
+            Invokable invokable = method.getAnnotation(Invokable.class);
+            if(invokable != null ? invokable.value() : isDefaultInvokable){
+                methods.add(method);
+            }
+        }
+        if(methods.isEmpty()){
+            return;
+        }
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String registryName = flatName(type) + REGISTRY_SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? registryName : packageName + "." + registryName;
+        try {
+            try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter())) {
+                writeRegistry(out, packageName, registryName, type, methods);
+            }
+            generated.add(qualifiedName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write "+qualifiedName+": "+e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Collects the public methods of a type the way Class.getMethods() does: the most specific declaration
+     * of each method from the type, its superclasses and its interfaces.
+     */
+    private List<ExecutableElement> publicMethods(TypeElement type) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        Set<TypeElement> visited = new LinkedHashSet<>();
+        List<TypeElement> pending = new ArrayList<>();
+        pending.add(type);
+        while (!pending.isEmpty()) {
+            TypeElement current = pending.remove(0);
+            if(!visited.add(current)){
+                continue;
+            }
+            String packageName = processingEnv.getElementUtils().getPackageOf(current).getQualifiedName().toString();
+            boolean isInterface = current.getKind() == ElementKind.INTERFACE;
+            if(!packageName.startsWith("java.") && !packageName.startsWith("javax.")){
+                for(ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())){
+                    Set<Modifier> modifiers = method.getModifiers();
+                    if(modifiers.contains(Modifier.PUBLIC) && !(isInterface && modifiers.contains(Modifier.STATIC)) &&
+                            !isOverridden(method, methods, type)){
+                        methods.add(method);
+                    }
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            if(superclass.getKind() == TypeKind.DECLARED){
+                pending.add((TypeElement) ((DeclaredType) superclass).asElement());
+            }
+            for(TypeMirror superinterface : current.getInterfaces()){
+                pending.add((TypeElement) ((DeclaredType) superinterface).asElement());
+            }
+        }
+        return methods;
+    }
+
+    private boolean isOverridden(ExecutableElement method, List<ExecutableElement> found, TypeElement type) {
+        for(ExecutableElement existing : found){
+            if(processingEnv.getElementUtils().overrides(existing, method, type)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeRegistry(PrintWriter out, String packageName, String registryName, TypeElement type, List<ExecutableElement> methods) {
+        String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+        if(!packageName.isEmpty()){
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("/**");
+        out.println(" * Invoker registry for {@link " + typeName + "}. Generated by " + InvokerProcessor.class.getName() + ".");
+        out.println(" */");
+        out.println("public final class " + registryName + " implements net.kebernet.invoker.runtime.spi.InvokerRegistry {");
+        out.println();
+        out.println("    private static final java.util.List<net.kebernet.invoker.runtime.spi.MethodDescriptor> METHODS =");
+        out.println("            java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            out.print("                    " + descriptor(method));
+            out.println(i + 1 < methods.size() ? "," : "));");
+        }
+        out.println();
+        out.println("    @Override");
+        out.println("    public Class<?> getType() {");
+        out.println("        return " + typeName + ".class;");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public java.util.List<net.kebernet.invoker.runtime.spi.MethodDescriptor> getMethods() {");
+        out.println("        return METHODS;");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        out.println("    public Object invoke(int index, Object target, Object[] arguments) throws Throwable {");
+        out.println("        switch (index) {");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            StringBuilder call = new StringBuilder();
+            if(method.getModifiers().contains(Modifier.STATIC)){
+                call.append(typeName);
+            } else {
+                call.append("((").append(typeName).append(") target)");
+            }
+            call.append('.').append(method.getSimpleName()).append('(');
+            List<? extends VariableElement> parameters = method.getParameters();
+            for (int p = 0; p < parameters.size(); p++) {
+                TypeMirror parameterType = parameters.get(p).asType();
+                String cast = parameterType.getKind().isPrimitive() ?
+                        processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) parameterType).getQualifiedName().toString() :
+                        processingEnv.getTypeUtils().erasure(parameterType).toString();
+                call.append(p == 0 ? "" : ", ").append('(').append(cast).append(") arguments[").append(p).append(']');
+            }
+            call.append(')');
+            out.println("            case " + i + ":");
+            if(method.getReturnType().getKind() == TypeKind.VOID){
+                out.println("                " + call + ";");
+                out.println("                return null;");
+            } else {
+                out.println("                return " + call + ";");
+            }
+        }
+        out.println("            default:");
+        out.println("                throw new IndexOutOfBoundsException(\"No method \" + index);");
+        out.println("        }");
+        out.println("    }");
+        out.println("}");
+    }
+
+    private String descriptor(ExecutableElement method) {
+        Invokable invokable = method.getAnnotation(Invokable.class);
+        String methodName = method.getSimpleName().toString();
+        String invocationName = invokable != null && !"".equals(invokable.invocationName()) ? invokable.invocationName() : methodName;
+        StringBuilder types = new StringBuilder();
+        StringBuilder names = new StringBuilder();
+        StringBuilder required = new StringBuilder();
+        for(VariableElement parameter : method.getParameters()){
+            Parameter annotation = parameter.getAnnotation(Parameter.class);
+            boolean primitive = parameter.asType().getKind().isPrimitive();
+            String name = annotation == null ? parameter.getSimpleName().toString() : annotation.value();
+            String separator = types.length() == 0 ? "" : ", ";
+            types.append(separator).append(classLiteral(parameter.asType()));
+            names.append(separator).append(processingEnv.getElementUtils().getConstantExpression(name));
+            required.append(separator).append(primitive || (annotation != null && annotation.required()));
+        }
+        return "new net.kebernet.invoker.runtime.spi.MethodDescriptor(" +
+                processingEnv.getElementUtils().getConstantExpression(invocationName) + ", " +
+                processingEnv.getElementUtils().getConstantExpression(methodName) + ", " +
+                classLiteral(method.getReturnType()) + ",\n" +
+                "                            new Class<?>[]{" + types + "},\n" +
+                "                            new String[]{" + names + "},\n" +
+                "                            new boolean[]{" + required + "})";
+    }
+
+    private String classLiteral(TypeMirror type) {
+        if(type.getKind() == TypeKind.VOID){
+            return "void.class";
+        }
+        return processingEnv.getTypeUtils().erasure(type).toString() + ".class";
+    }
+
+    private static String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (!(enclosing instanceof PackageElement)) {
+            name.insert(0, '_').insert(0, enclosing.getSimpleName());
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.toString();
+    }
+
+    /**
+     * Writes the service file, keeping registries listed by an earlier incremental compilation.
+     */
+    private void writeServiceFile() {
+        if(generated.isEmpty()){
+            return;
+        }
+        Set<String> entries = new TreeSet<>(generated);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if(!line.trim().isEmpty()){
+                        entries.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // No earlier service file.
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for(String entry : entries){
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write "+SERVICE_FILE+": "+e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.processor;
+
+import net.kebernet.invoker.runtime.InvocationEngine;
+import net.kebernet.invoker.runtime.Invoker;
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.ParameterValue;
+import net.kebernet.invoker.runtime.impl.IntrospectionData;
+import net.kebernet.invoker.runtime.impl.InvokableMethod;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InvokerProcessorTest {
+
+    private static final String SOURCE = String.join("\n",
+            "package test.pkg;",
+            "import net.kebernet.invoker.annotation.*;",
+            "@DefaultInvokable(true)",
+            "public class Handler extends Base {",
+            "    private int count;",
+            "    public String greet(@Parameter(\"name\") String name, @Parameter(value = \"suffix\", required = false) String suffix) {",
+            "        return \"Hello \" + name + (suffix == null ? \"\" : suffix);",
+            "    }",
+            "    @Invokable(invocationName = \"add\")",
+            "    public void increment(int amount) { count += amount; }",
+            "    public int getCount() { return count; }",
+            "    public static long twice(long value) { return value * 2; }",
+            "    public java.util.List<String> list(java.util.List<String> values) { return values; }",
+            "    @Invokable(false)",
+            "    public String hidden() { return \"hidden\"; }",
+            "    public static class Nested {",
+            "        @Invokable public String nested(@Parameter(\"value\") String value) { return value; }",
+            "    }",
+            "}",
+            "class Base {",
+            "    public String inherited() { return \"inherited\"; }",
+            "}");
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("invoker-processor");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void generatesRegistries() throws Exception {
+        ClassLoader loader = compile();
+        String services = new String(Files.readAllBytes(directory.resolve(InvokerProcessor.SERVICE_FILE)), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("test.pkg.Handler_InvokerRegistry", "test.pkg.Handler_Nested_InvokerRegistry"),
+                Arrays.stream(services.split("\n")).collect(Collectors.toList()));
+
+        Class<?> handlerClass = loader.loadClass("test.pkg.Handler");
+        Invoker invoker = new Invoker(InvokerOptions.builder().invocationEngine(InvocationEngine.GENERATED).build());
+        IntrospectionData data = invoker.lookupType(handlerClass);
+        assertEquals(Arrays.asList("add", "getCount", "greet", "inherited", "list", "twice"),
+                data.getMethods().stream().map(InvokableMethod::getName).sorted().collect(Collectors.toList()));
+        for (InvokableMethod method : data.getMethods()) {
+            assertEquals(InvocationEngine.GENERATED, method.getInvocationEngine());
+        }
+
+        Object handler = handlerClass.newInstance();
+        assertEquals("Hello Bob", invoker.invoke(handler, "greet", Collections.singletonList(new ParameterValue("name", "Bob"))));
+        assertEquals("Hello Bob!", invoker.invoke(handler, "greet", Arrays.asList(
+                new ParameterValue("name", "Bob"), new ParameterValue("suffix", "!"))));
+        // Unannotated parameters use their source names, without the -parameters flag.
+        assertEquals(Void.class, invoker.invoke(handler, "add", Collections.singletonList(new ParameterValue("amount", 3))));
+        assertEquals(3, (int) invoker.invoke(handler, "getCount", Collections.emptyList()));
+        assertEquals(42L, (long) invoker.invoke(handler, "twice", Collections.singletonList(new ParameterValue("value", 21L))));
+        assertEquals("inherited", invoker.invoke(handler, "inherited", Collections.emptyList()));
+        assertEquals(handlerClass.getMethod("greet", String.class, String.class),
+                data.bestMatch("greet", Collections.singletonList(new ParameterValue("name", "Bob")))
+                        .orElseThrow(RuntimeException::new).getNativeMethod());
+
+        Object nested = loader.loadClass("test.pkg.Handler$Nested").newInstance();
+        assertEquals("value", invoker.invoke(nested, "nested", Collections.singletonList(new ParameterValue("value", "value"))));
+    }
+
+    @Test
+    public void reflectionWithoutGeneratedEngine() throws Exception {
+        Class<?> handlerClass = compile().loadClass("test.pkg.Handler");
+        IntrospectionData data = new Invoker().lookupType(handlerClass);
+        for (InvokableMethod method : data.getMethods()) {
+            assertEquals(InvocationEngine.REFLECTION, method.getInvocationEngine());
+        }
+    }
+
+    private ClassLoader compile() throws IOException {
+        Path source = directory.resolve("test/pkg/Handler.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, SOURCE.getBytes(StandardCharsets.UTF_8));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = compiler.run(null, null, errors,
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", InvokerProcessor.class.getName(),
+                "-d", directory.toString(),
+                "-s", directory.toString(),
+                source.toString());
+        assertTrue(new String(errors.toByteArray(), StandardCharsets.UTF_8), result == 0);
+        return new URLClassLoader(new URL[]{directory.toUri().toURL()}, getClass().getClassLoader());
+    }
+}
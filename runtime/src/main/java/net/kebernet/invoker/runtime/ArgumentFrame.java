@@ -0,0 +1,510 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import net.kebernet.invoker.runtime.impl.InvokableMethod;
+import net.kebernet.invoker.runtime.impl.ParameterShape;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+
+/**
+ * A mutable, reusable set of named values for an invocation. This takes the place of a
+ * {@code List<ParameterValue>} when the invocation path should not allocate: names and values are held
+ * in arrays that grow as needed and are kept between uses, and the argument arrays a frame binds to
+ * a method are reused as well.
+ * <p>
+ * A frame is not thread safe. Frames from {@link #acquire()} are pooled per thread and must be closed
+ * on the thread that acquired them, typically with try-with-resources. A frame can also be created
+ * with the constructor and kept by a single thread, filling values once by name with
+ * {@link #add(String, Object)} and then replacing them by slot with {@link #set(int, Object)}.
+ * </p>
+ * <p>
+ * Primitive values added with {@link #addInt(String, int)}, {@link #addLong(String, long)} and the
+ * other typed methods are stored without boxing. Methods called with the
+ * {@link InvocationEngine#METHOD_HANDLE} engine receive them in primitive parameters as they are;
+ * otherwise they are boxed when they are bound.
+ * </p>
+ */
+public final class ArgumentFrame implements ParameterShape, AutoCloseable {
+
+    private static final int INITIAL_CAPACITY = 8;
+    /**
+     * Argument arrays are reused for methods with up to this many parameters.
+     */
+    private static final int MAX_REUSED_ARITY = 16;
+    private static final ThreadLocal<ArgumentFrame> POOL = new ThreadLocal<>();
+
+    private final boolean pooled;
+    private final BiConsumer<String, Object> adder = (name, value) -> add(name, value);
+    private String[] names = new String[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    /**
+     * The primitive type of each value stored in {@link #bits}, or null for values stored in {@link #values}.
+     */
+    private Class[] primitives = new Class[INITIAL_CAPACITY];
+    /**
+     * Primitive values, as longs, doubles as their raw bits and booleans as 0 or 1.
+     */
+    private long[] bits = new long[INITIAL_CAPACITY];
+    private int size;
+    private Object[][] arguments;
+    private int[][] entries;
+    /**
+     * The next free frame in the pool of this thread.
+     */
+    private ArgumentFrame next;
+    private boolean released;
+
+    /**
+     * Creates an unpooled frame. Closing it only clears it.
+     */
+    public ArgumentFrame() {
+        this(false);
+    }
+
+    private ArgumentFrame(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /**
+     * Takes an empty frame from the pool of the current thread, creating one if the pool is empty.
+     * Frames are returned to the pool by {@link #close()}, so nested invocations on the same thread
+     * each get their own frame.
+     * @return An empty frame.
+     */
+    public static @Nonnull ArgumentFrame acquire() {
+        ArgumentFrame frame = POOL.get();
+        if(frame == null){
+            return new ArgumentFrame(true);
+        }
+        POOL.set(frame.next);
+        frame.next = null;
+        frame.released = false;
+        return frame;
+    }
+
+    /**
+     * Adds a named value.
+     * @param name The parameter name.
+     * @param value The value, which may be null.
+     * @return The slot of the value in this frame.
+     */
+    public int add(@Nonnull String name, @Nullable Object value) {
+        int slot = allocate(name);
+        values[slot] = value;
+        return slot;
+    }
+
+    /**
+     * Adds a named int without boxing it.
+     * @param name The parameter name.
+     * @param value The value.
+     * @return The slot of the value in this frame.
+     */
+    public int addInt(@Nonnull String name, int value) {
+        return addBits(name, Integer.TYPE, value);
+    }
+
+    /**
+     * Adds a named long without boxing it.
+     * @param name The parameter name.
+     * @param value The value.
+     * @return The slot of the value in this frame.
+     */
+    public int addLong(@Nonnull String name, long value) {
+        return addBits(name, Long.TYPE, value);
+    }
+
+    /**
+     * Adds a named double without boxing it.
+     * @param name The parameter name.
+     * @param value The value.
+     * @return The slot of the value in this frame.
+     */
+    public int addDouble(@Nonnull String name, double value) {
+        return addBits(name, Double.TYPE, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Adds a named float without boxing it.
+     * @param name The parameter name.
+     * @param value The value.
+     * @return The slot of the value in this frame.
+     */
+    public int addFloat(@Nonnull String name, float value) {
+        return addBits(name, Float.TYPE, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Adds a named boolean without boxing it.
+     * @param name The parameter name.
+     * @param value The value.
+     * @return The slot of the value in this frame.
+     */
+    public int addBoolean(@Nonnull String name, boolean value) {
+        return addBits(name, Boolean.TYPE, value ? 1 : 0);
+    }
+
+    private int addBits(String name, Class type, long value) {
+        int slot = allocate(name);
+        primitives[slot] = type;
+        bits[slot] = value;
+        return slot;
+    }
+
+    private int allocate(String name) {
+        if(size == names.length){
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            primitives = Arrays.copyOf(primitives, size * 2);
+            bits = Arrays.copyOf(bits, size * 2);
+        }
+        names[size] = name;
+        return size++;
+    }
+
+    /**
+     * Adds every entry of a map as a named value, in the iteration order of the map.
+     * @param values The values by parameter name.
+     * @return this
+     */
+    public @Nonnull ArgumentFrame addAll(@Nonnull Map<String, ?> values) {
+        values.forEach(adder);
+        return this;
+    }
+
+    /**
+     * Adds every ParameterValue in a list, in order.
+     * @param values The values.
+     * @return this
+     */
+    public @Nonnull ArgumentFrame addAll(@Nonnull List<ParameterValue> values) {
+        if(values instanceof RandomAccess){
+            for (int i = 0; i < values.size(); i++) {
+                ParameterValue value = values.get(i);
+                add(value.getName(), value.getValue());
+            }
+        } else {
+            for(ParameterValue value : values){
+                add(value.getName(), value.getValue());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Replaces the value in a slot, keeping its name.
+     * @param slot The slot returned when the name was added.
+     * @param value The new value, which may be null.
+     */
+    public void set(int slot, @Nullable Object value) {
+        check(slot);
+        values[slot] = value;
+        primitives[slot] = null;
+    }
+
+    /**
+     * Replaces the value in a slot with an int, keeping its name.
+     * @param slot The slot returned when the name was added.
+     * @param value The new value.
+     */
+    public void setInt(int slot, int value) {
+        setBits(slot, Integer.TYPE, value);
+    }
+
+    /**
+     * Replaces the value in a slot with a long, keeping its name.
+     * @param slot The slot returned when the name was added.
+     * @param value The new value.
+     */
+    public void setLong(int slot, long value) {
+        setBits(slot, Long.TYPE, value);
+    }
+
+    /**
+     * Replaces the value in a slot with a double, keeping its name.
+     * @param slot The slot returned when the name was added.
+     * @param value The new value.
+     */
+    public void setDouble(int slot, double value) {
+        setBits(slot, Double.TYPE, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Replaces the value in a slot with a float, keeping its name.
+     * @param slot The slot returned when the name was added.
+     * @param value The new value.
+     */
+    public void setFloat(int slot, float value) {
+        setBits(slot, Float.TYPE, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Replaces the value in a slot with a boolean, keeping its name.
+     * @param slot The slot returned when the name was added.
+     * @param value The new value.
+     */
+    public void setBoolean(int slot, boolean value) {
+        setBits(slot, Boolean.TYPE, value ? 1 : 0);
+    }
+
+    private void setBits(int slot, Class type, long value) {
+        check(slot);
+        values[slot] = null;
+        primitives[slot] = type;
+        bits[slot] = value;
+    }
+
+    /**
+     * The value in a slot. Primitive values are boxed.
+     * @param slot The slot.
+     * @return The value, which may be null.
+     */
+    public @Nullable Object getValue(int slot) {
+        check(slot);
+        Class type = primitives[slot];
+        if(type == null){
+            return values[slot];
+        }
+        if(type == Integer.TYPE){
+            return (int) bits[slot];
+        } else if(type == Long.TYPE){
+            return bits[slot];
+        } else if(type == Double.TYPE){
+            return Double.longBitsToDouble(bits[slot]);
+        } else if(type == Float.TYPE){
+            return Float.intBitsToFloat((int) bits[slot]);
+        } else {
+            return bits[slot] != 0;
+        }
+    }
+
+    /**
+     * The int in a slot, without boxing if it was added as an int.
+     * @param slot The slot.
+     * @return The value.
+     * @throws ClassCastException if the slot holds neither an int nor an Integer.
+     */
+    public int getInt(int slot) {
+        check(slot);
+        return primitives[slot] == Integer.TYPE ? (int) bits[slot] : (Integer) getValue(slot);
+    }
+
+    /**
+     * The long in a slot, without boxing if it was added as a long.
+     * @param slot The slot.
+     * @return The value.
+     * @throws ClassCastException if the slot holds neither a long nor a Long.
+     */
+    public long getLong(int slot) {
+        check(slot);
+        return primitives[slot] == Long.TYPE ? bits[slot] : (Long) getValue(slot);
+    }
+
+    /**
+     * The double in a slot, without boxing if it was added as a double.
+     * @param slot The slot.
+     * @return The value.
+     * @throws ClassCastException if the slot holds neither a double nor a Double.
+     */
+    public double getDouble(int slot) {
+        check(slot);
+        return primitives[slot] == Double.TYPE ? Double.longBitsToDouble(bits[slot]) : (Double) getValue(slot);
+    }
+
+    /**
+     * The float in a slot, without boxing if it was added as a float.
+     * @param slot The slot.
+     * @return The value.
+     * @throws ClassCastException if the slot holds neither a float nor a Float.
+     */
+    public float getFloat(int slot) {
+        check(slot);
+        return primitives[slot] == Float.TYPE ? Float.intBitsToFloat((int) bits[slot]) : (Float) getValue(slot);
+    }
+
+    /**
+     * The boolean in a slot, without boxing if it was added as a boolean.
+     * @param slot The slot.
+     * @return The value.
+     * @throws ClassCastException if the slot holds neither a boolean nor a Boolean.
+     */
+    public boolean getBoolean(int slot) {
+        check(slot);
+        return primitives[slot] == Boolean.TYPE ? bits[slot] != 0 : (Boolean) getValue(slot);
+    }
+
+    private void check(int slot) {
+        if(slot < 0 || slot >= size){
+            throw new IndexOutOfBoundsException("Slot "+slot+" of "+size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public @Nonnull String getName(int index) {
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("Slot "+index+" of "+size);
+        }
+        return names[index];
+    }
+
+    @Override
+    public @Nullable Class getType(int index) {
+        check(index);
+        Class type = primitives[index];
+        if(type != null){
+            // The wrapper class, which is what primitive parameters are matched against.
+            return type == Integer.TYPE ? Integer.class :
+                    type == Long.TYPE ? Long.class :
+                    type == Double.TYPE ? Double.class :
+                    type == Float.TYPE ? Float.class : Boolean.class;
+        }
+        Object value = values[index];
+        return value == null ? null : value.getClass();
+    }
+
+    /**
+     * Binds the values of this frame to the parameters of a method by name. Values that don't name a
+     * parameter are ignored and parameters without a value are null. The array is owned by this frame
+     * and is reused by the next call to bind for a method of the same arity.
+     * @param method The method to bind to.
+     * @return The arguments in the declared parameter order.
+     */
+    public @Nonnull Object[] bind(@Nonnull InvokableMethod method) {
+        int arity = method.getParameterCount();
+        Object[] result;
+        if(arity > MAX_REUSED_ARITY){
+            result = new Object[arity];
+        } else {
+            if(arguments == null){
+                arguments = new Object[MAX_REUSED_ARITY + 1][];
+            }
+            result = arguments[arity];
+            if(result == null){
+                result = new Object[arity];
+                arguments[arity] = result;
+            } else {
+                Arrays.fill(result, null);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            int slot = method.slotOf(names[i]);
+            if(slot >= 0){
+                result[slot] = primitives[i] == null ? values[i] : getValue(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Maps the parameters of a method to the slots of this frame by name, without reading the values.
+     * The array is owned by this frame and is reused by the next call to bindSlots for a method of the
+     * same arity.
+     * @param method The method to bind to.
+     * @return The slot in this frame of each parameter, in the declared parameter order, or -1 for
+     * parameters without a value.
+     */
+    public @Nonnull int[] bindSlots(@Nonnull InvokableMethod method) {
+        int arity = method.getParameterCount();
+        int[] result;
+        if(arity > MAX_REUSED_ARITY){
+            result = new int[arity];
+        } else {
+            if(entries == null){
+                entries = new int[MAX_REUSED_ARITY + 1][];
+            }
+            result = entries[arity];
+            if(result == null){
+                result = new int[arity];
+                entries[arity] = result;
+            }
+        }
+        Arrays.fill(result, -1);
+        for (int i = 0; i < size; i++) {
+            int slot = method.slotOf(names[i]);
+            if(slot >= 0){
+                result[slot] = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies the values of this frame, for reporting.
+     * @return A new list of ParameterValues.
+     */
+    public @Nonnull List<ParameterValue> toParameterValues() {
+        List<ParameterValue> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new ParameterValue(names[i], getValue(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Removes every value, keeping the allocated capacity.
+     */
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(primitives, 0, size, null);
+        size = 0;
+        if(arguments != null){
+            for (Object[] array : arguments) {
+                if(array != null){
+                    Arrays.fill(array, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears the frame and, if it came from {@link #acquire()}, returns it to the pool of the current thread.
+     */
+    @Override
+    public void close() {
+        clear();
+        if(pooled && !released){
+            released = true;
+            next = POOL.get();
+            POOL.set(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ArgumentFrame{");
+        for (int i = 0; i < size; i++) {
+            if(i > 0){
+                builder.append(", ");
+            }
+            builder.append(names[i]).append('=').append(getValue(i));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import net.kebernet.invoker.runtime.impl.InvokableMethod;
+import net.kebernet.invoker.runtime.impl.ParameterShape;
+import net.kebernet.invoker.runtime.impl.ShapeCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a batch of invocations: requests are grouped by (target class, invocation name, parameter
+ * shape) and each group is resolved once, then the calls are split across a ForkJoinPool.
+ */
+class BatchInvocation {
+
+    private final Invoker invoker;
+    private final List<InvocationRequest> requests;
+    private final InvokableMethod[] methods;
+    private final InvocationResult<?>[] results;
+
+    BatchInvocation(Invoker invoker, List<InvocationRequest> requests) {
+        this.invoker = invoker;
+        this.requests = requests instanceof RandomAccess ? requests : new ArrayList<>(requests);
+        this.methods = new InvokableMethod[this.requests.size()];
+        this.results = new InvocationResult<?>[this.requests.size()];
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> List<InvocationResult<T>> run(ForkJoinPool pool) {
+        resolve();
+        if(!requests.isEmpty()){
+            int granularity = Math.max(1, requests.size() / (pool.getParallelism() * 4));
+            pool.invoke(new Calls(0, requests.size(), granularity));
+        }
+        return (List<InvocationResult<T>>) (List<?>) Arrays.asList(results);
+    }
+
+    private void resolve() {
+        HashMap<Group, Optional<InvokableMethod>> groups = new HashMap<>();
+        // Why the type of a group could not be introspected, reported as the cause for each of its requests.
+        HashMap<Group, RuntimeException> failures = new HashMap<>();
+        // How long the groups that did not resolve took, reported with each of their requests.
+        HashMap<Group, Long> unresolved = new HashMap<>();
+        for (int i = 0; i < methods.length; i++) {
+            InvocationRequest request = requests.get(i);
+            Group group = new Group(request);
+            Optional<InvokableMethod> method = groups.get(group);
+            if(method == null){
+                long start = System.nanoTime();
+                try {
+                    method = invoker.resolveBatched(group.type, group.methodName, group);
+                } catch (RuntimeException e) {
+                    failures.put(group, e);
+                    method = Optional.empty();
+                }
+                groups.put(group, method);
+                if(!method.isPresent()){
+                    unresolved.put(group, System.nanoTime() - start);
+                }
+            }
+            if(method.isPresent()){
+                methods[i] = method.get();
+            } else {
+                InvokerException e = new InvokerException("Could not resolve method name:" + request.getMethodName(),
+                        failures.get(group), request.getTarget(), request.getMethodName(), request.getValues());
+                invoker.unresolved(group.type, group.methodName, group, unresolved.get(group), e);
+                results[i] = InvocationResult.failure(e);
+            }
+        }
+    }
+
+    private void call(int index) {
+        if(methods[index] == null){
+            return;
+        }
+        InvocationRequest request = requests.get(index);
+        try {
+            results[index] = InvocationResult.success(invoker.invoke(request.getTarget(), methods[index], request.getValues()));
+        } catch (InvokerException e) {
+            results[index] = InvocationResult.failure(e);
+        } catch (RuntimeException e) {
+            results[index] = InvocationResult.failure(new InvokerException("Failed to invoke " + request.getMethodName(),
+                    e, request.getTarget(), request.getMethodName(), request.getValues()));
+        }
+    }
+
+    private class Calls extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int granularity;
+
+        private Calls(int from, int to, int granularity) {
+            this.from = from;
+            this.to = to;
+            this.granularity = granularity;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= granularity){
+                for (int i = from; i < to; i++) {
+                    call(i);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Calls(from, middle, granularity), new Calls(middle, to, granularity));
+            }
+        }
+    }
+
+    /**
+     * The key requests are grouped by: the class of the target, the invocation name and the shape of the values.
+     */
+    private static final class Group implements ParameterShape {
+        private final Class type;
+        private final String methodName;
+        private final String[] names;
+        private final Class[] types;
+        private final int hash;
+
+        private Group(InvocationRequest request) {
+            this.type = request.getTarget().getClass();
+            this.methodName = request.getMethodName();
+            List<ParameterValue> values = request.getValues();
+            this.names = new String[values.size()];
+            this.types = new Class[values.size()];
+            for (int i = 0; i < names.length; i++) {
+                ParameterValue value = values.get(i);
+                names[i] = value.getName();
+                types[i] = value.getValue() == null ? null : value.getValue().getClass();
+            }
+            long fingerprint = ShapeCache.fingerprint(methodName, this);
+            this.hash = 31 * type.hashCode() + (int) (fingerprint ^ (fingerprint >>> 32));
+        }
+
+        @Override
+        public int size() {
+            return names.length;
+        }
+
+        @Override
+        public String getName(int index) {
+            return names[index];
+        }
+
+        @Override
+        public Class getType(int index) {
+            return types[index];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Group)) return false;
+            Group group = (Group) o;
+            return hash == group.hash && type == group.type && methodName.equals(group.methodName) &&
+                    Arrays.equals(names, group.names) && Arrays.equals(types, group.types);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
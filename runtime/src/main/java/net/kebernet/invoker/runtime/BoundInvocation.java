@@ -0,0 +1,222 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import net.kebernet.invoker.runtime.impl.InvokableMethod;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, pre-resolved invocation of one invocation name on one type with a fixed, ordered set
+ * of parameter names. Created by {@link Invoker#bind(Class, String, String[], Class[])}.
+ * <p>
+ * Values are passed positionally in the bound order. When the target is exactly the bound type and
+ * every value has exactly the bound class, the call goes straight to the resolved method without any
+ * matching. Otherwise the call is resolved again through the Invoker, as
+ * {@link Invoker#invoke(Object, String, List)} would.
+ * </p>
+ */
+public final class BoundInvocation {
+    private final Invoker invoker;
+    private final Class type;
+    private final String invocationName;
+    private final String[] parameterNames;
+    private final Class[] parameterTypes;
+    private final InvokableMethod method;
+    /**
+     * For each bound position, the index of the method parameter it is passed to.
+     */
+    private final int[] slots;
+
+    BoundInvocation(@Nonnull Invoker invoker, @Nonnull Class type, @Nonnull String invocationName,
+                    @Nonnull String[] parameterNames, @Nonnull Class[] parameterTypes, @Nonnull InvokableMethod method) {
+        this.invoker = invoker;
+        this.type = type;
+        this.invocationName = invocationName;
+        this.parameterNames = parameterNames.clone();
+        this.parameterTypes = parameterTypes.clone();
+        this.method = method;
+        this.slots = new int[parameterNames.length];
+        for (int i = 0; i < parameterNames.length; i++) {
+            slots[i] = method.slotOf(parameterNames[i]);
+        }
+    }
+
+    /**
+     * The type this invocation is bound to.
+     * @return The type.
+     */
+    public @Nonnull Class getType() {
+        return type;
+    }
+
+    /**
+     * The invocation name this is bound to.
+     * @return The invocation name.
+     */
+    public @Nonnull String getInvocationName() {
+        return invocationName;
+    }
+
+    /**
+     * The bound parameter names, in the order values are passed.
+     * @return A read-only list of names.
+     */
+    public @Nonnull List<String> getParameterNames() {
+        return Collections.unmodifiableList(Arrays.asList(parameterNames));
+    }
+
+    /**
+     * The method resolved for the bound shape.
+     * @return The method.
+     */
+    public @Nonnull InvokableMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * Invokes the bound method.
+     * @param target The object to invoke on.
+     * @param values The values, one per bound parameter name in the bound order.
+     * @param <T> The return type of the method.
+     * @return The results of the method, or Void.class if the method has not return value.
+     * @throws InvokerException is thrown generally if there is a reflection problem or the target method could not be resolved.
+     */
+    public @Nullable <T> T invoke(@Nonnull Object target, @Nonnull Object... values) throws InvokerException {
+        Object[] arguments = bindArguments(target, values);
+        return arguments == null ? invoker.invoke(target, invocationName, toParameterValues(values)) :
+                invoker.invoke(target, method, arguments);
+    }
+
+    /**
+     * Invokes the bound method, returning an int without boxing it when the method is called through a handle.
+     * @param target The object to invoke on.
+     * @param values The values, one per bound parameter name in the bound order.
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return an int.
+     */
+    public int invokeInt(@Nonnull Object target, @Nonnull Object... values) throws InvokerException {
+        Object[] arguments = bindArguments(target, values);
+        return arguments == null ? invoker.invokeInt(target, invocationName, toParameterValues(values)) :
+                invoker.invokeInt(target, method, arguments);
+    }
+
+    /**
+     * Invokes the bound method, returning a long without boxing it when the method is called through a handle.
+     * @param target The object to invoke on.
+     * @param values The values, one per bound parameter name in the bound order.
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a long.
+     */
+    public long invokeLong(@Nonnull Object target, @Nonnull Object... values) throws InvokerException {
+        Object[] arguments = bindArguments(target, values);
+        return arguments == null ? invoker.invokeLong(target, invocationName, toParameterValues(values)) :
+                invoker.invokeLong(target, method, arguments);
+    }
+
+    /**
+     * Invokes the bound method, returning a double without boxing it when the method is called through a handle.
+     * @param target The object to invoke on.
+     * @param values The values, one per bound parameter name in the bound order.
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a double.
+     */
+    public double invokeDouble(@Nonnull Object target, @Nonnull Object... values) throws InvokerException {
+        Object[] arguments = bindArguments(target, values);
+        return arguments == null ? invoker.invokeDouble(target, invocationName, toParameterValues(values)) :
+                invoker.invokeDouble(target, method, arguments);
+    }
+
+    /**
+     * Invokes the bound method, returning a boolean without boxing it when the method is called through a handle.
+     * @param target The object to invoke on.
+     * @param values The values, one per bound parameter name in the bound order.
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a boolean.
+     */
+    public boolean invokeBoolean(@Nonnull Object target, @Nonnull Object... values) throws InvokerException {
+        Object[] arguments = bindArguments(target, values);
+        return arguments == null ? invoker.invokeBoolean(target, invocationName, toParameterValues(values)) :
+                invoker.invokeBoolean(target, method, arguments);
+    }
+
+    /**
+     * Invokes the bound method, discarding any result.
+     * @param target The object to invoke on.
+     * @param values The values, one per bound parameter name in the bound order.
+     * @throws InvokerException is thrown generally if there is a reflection problem or the target method could not be resolved.
+     */
+    public void invokeVoid(@Nonnull Object target, @Nonnull Object... values) throws InvokerException {
+        Object[] arguments = bindArguments(target, values);
+        if(arguments == null){
+            invoker.invokeVoid(target, invocationName, toParameterValues(values));
+        } else {
+            invoker.invokeVoid(target, method, arguments);
+        }
+    }
+
+    /**
+     * Places the values in the argument array of the bound method.
+     * @return The arguments, or null if the target or values don't have the bound shape.
+     */
+    private Object[] bindArguments(Object target, Object[] values) {
+        if(values.length != parameterNames.length){
+            throw new IllegalArgumentException("Expected "+parameterNames.length+" values but got "+values.length);
+        }
+        if(target.getClass() != type || !hasBoundShape(values)){
+            return null;
+        }
+        Object[] arguments = new Object[method.getParameterCount()];
+        for (int i = 0; i < values.length; i++) {
+            arguments[slots[i]] = values[i];
+        }
+        return arguments;
+    }
+
+    private boolean hasBoundShape(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if((value == null ? null : value.getClass()) != parameterTypes[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<ParameterValue> toParameterValues(Object[] values) {
+        List<ParameterValue> result = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            result.add(new ParameterValue(parameterNames[i], values[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("BoundInvocation{")
+                .append("type=").append(type.getName())
+                .append(", invocationName='").append(invocationName).append('\'')
+                .append(", parameterNames=").append(Arrays.toString(parameterNames))
+                .append(", parameterTypes=").append(Arrays.toString(parameterTypes))
+                .append('}')
+                .toString();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+/**
+ * The strategies available for calling the underlying Java method once an invocation has been resolved.
+ */
+public enum InvocationEngine {
+    /**
+     * Calls the method through {@link java.lang.reflect.Method#invoke(Object, Object...)} at first, through
+     * the {@link net.kebernet.invoker.runtime.impl.Dispatcher} of its type, which binds it to a MethodHandle
+     * once it has been called often enough. Rarely used methods stay reflective.
+     */
+    REFLECTION,
+    /**
+     * Binds each method to a pre-adapted {@link java.lang.invoke.MethodHandle} when the type is introspected.
+     * Methods that cannot be adapted fall back to reflection.
+     */
+    METHOD_HANDLE,
+    /**
+     * Builds types from an {@link net.kebernet.invoker.runtime.spi.InvokerRegistry} generated at compile time
+     * when one is available, skipping method and parameter reflection, and calls methods through its direct-call
+     * dispatcher. Types without a registry, and Invokers using custom naming strategies, use METHOD_HANDLE.
+     */
+    GENERATED
+}
@@ -0,0 +1,65 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One element of a batch passed to {@link Invoker#invokeAll(List)}: a target, an invocation name and
+ * the values to pass.
+ */
+public final class InvocationRequest {
+
+    private final Object target;
+    private final String methodName;
+    private final List<ParameterValue> values;
+
+    /**
+     * Constructor
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     */
+    public InvocationRequest(@Nonnull Object target, @Nonnull String methodName, @Nonnull List<ParameterValue> values) {
+        this.target = target;
+        this.methodName = methodName;
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    public @Nonnull Object getTarget() {
+        return target;
+    }
+
+    public @Nonnull String getMethodName() {
+        return methodName;
+    }
+
+    public @Nonnull List<ParameterValue> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("InvocationRequest{")
+                .append("target=").append(target.getClass().getName())
+                .append(", methodName='").append(methodName).append('\'')
+                .append(", values=").append(values.size())
+                .append('}')
+                .toString();
+    }
+}
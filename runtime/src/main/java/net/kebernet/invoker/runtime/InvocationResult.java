@@ -0,0 +1,84 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The outcome of one element of a batch: either the value returned by the method or the exception
+ * that was thrown instead.
+ * @param <T> The return type of the method.
+ */
+public final class InvocationResult<T> {
+
+    private final T value;
+    private final InvokerException error;
+
+    private InvocationResult(T value, InvokerException error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    static <T> InvocationResult<T> success(@Nullable T value) {
+        return new InvocationResult<>(value, null);
+    }
+
+    static <T> InvocationResult<T> failure(@Nonnull InvokerException error) {
+        return new InvocationResult<>(null, error);
+    }
+
+    /**
+     * Whether the method returned normally.
+     * @return true if there is a value.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * The value returned by the method.
+     * @return The value, Void.class for void methods, or null if the invocation failed.
+     */
+    public @Nullable T getValue() {
+        return value;
+    }
+
+    /**
+     * The exception thrown in place of a value.
+     * @return The exception, or null if the invocation succeeded.
+     */
+    public @Nullable InvokerException getError() {
+        return error;
+    }
+
+    /**
+     * The value returned by the method, rethrowing the failure if there was one.
+     * @return The value.
+     * @throws InvokerException if the invocation failed.
+     */
+    public @Nullable T get() throws InvokerException {
+        if(error != null){
+            throw error;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return error == null ? "InvocationResult{value=" + value + '}' : "InvocationResult{error=" + error + '}';
+    }
+}
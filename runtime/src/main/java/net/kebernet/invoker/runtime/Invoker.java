@@ -15,50 +15,279 @@
  */
 package net.kebernet.invoker.runtime;
 
+import net.kebernet.invoker.runtime.impl.ClassScanner;
+import net.kebernet.invoker.runtime.impl.DefaultExecutor;
+import net.kebernet.invoker.runtime.impl.GeneratedRegistries;
 import net.kebernet.invoker.runtime.impl.IntrospectionData;
+import net.kebernet.invoker.runtime.impl.IntrospectionSnapshot;
 import net.kebernet.invoker.runtime.impl.InvokableMethod;
+import net.kebernet.invoker.runtime.impl.NamedParameter;
+import net.kebernet.invoker.runtime.impl.ParameterShape;
+import net.kebernet.invoker.runtime.impl.TypeRegistry;
+import net.kebernet.invoker.runtime.metrics.SlowInvocationSampler;
+import net.kebernet.invoker.runtime.spi.InvokerListener;
+import net.kebernet.invoker.runtime.spi.InvokerRegistry;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * This is the top level class to use to invoke method dynamically on a class.
  */
 public class Invoker {
     /**
-     * A map for keeping caches of the IntrospectionData for a given type around
-     * to improve performance.
+     * The IntrospectionData for each type, kept to improve performance. This is shared by every
+     * thread using the Invoker, so reads are lock-free and a type is only ever introspected once on
+     * a cold lookup. It does not keep classes from being unloaded.
      */
-    private final HashMap<Class, IntrospectionData> introspectionData = new HashMap<>();
+    private final TypeRegistry introspectionData;
 
-    private final Optional<Function<Method, String>> findInvocationName;
+    private final InvokerOptions options;
 
-    private final Optional<Function<Parameter, String>> findMethodName;
+    private final GeneratedRegistries registries = new GeneratedRegistries();
+
+    /**
+     * The listener and sampler from the options, or null.
+     */
+    private final InvokerListener listener;
+    private final SlowInvocationSampler sampler;
+    /**
+     * Whether there is a listener or a sampler, so the unobserved paths only pay one check.
+     */
+    private final boolean observed;
+
+    private final Executor asyncExecutor;
 
     public Invoker(@Nonnull Function<Method, String> findInvocationName, @Nonnull Function<Parameter, String> findMethodName) {
-        this.findInvocationName = Optional.ofNullable(findInvocationName);
-        this.findMethodName = Optional.ofNullable(findMethodName);
+        this(InvokerOptions.builder()
+                .findInvocationName(findInvocationName)
+                .findParameterName(findMethodName)
+                .build());
     }
 
     public Invoker(){
-        this.findMethodName = Optional.empty();
-        this.findInvocationName = Optional.empty();
+        this(InvokerOptions.defaults());
+    }
+
+    /**
+     * Constructor
+     * @param options The options to use for introspection and invocation.
+     */
+    public Invoker(@Nonnull InvokerOptions options){
+        this.options = options;
+        this.introspectionData = new TypeRegistry(options.getCoercion().orElse(null));
+        this.listener = options.getListener().orElse(null);
+        this.sampler = options.getSlowInvocationSampler().orElse(null);
+        this.observed = listener != null || sampler != null;
+        this.asyncExecutor = options.getAsyncExecutor().orElseGet(DefaultExecutor::get);
     }
 
     /**
      * Registers a type ahead of time and performs the necessary reflection on the class.
-     * This is not necessary, but can help with performance.
+     * This is not necessary, but can help with performance. Registering a type that is
+     * already known replaces the existing IntrospectionData and clears its caches.
      * @param type The type to register for invocation.
      */
     public void registerType(@Nonnull Class type){
-        registerAndReturn(type);
+        this.introspectionData.put(type, introspect(type));
+    }
+
+    /**
+     * Forgets every type loaded by a class loader or its descendants, such as the loader of a web application
+     * being redeployed, and clears the resolution caches of the other types and of the coercion. The Invoker
+     * never keeps a class from being unloaded, but evicting a loader releases its entries right away rather
+     * than when the loader is collected.
+     * @param loader The class loader.
+     * @return The number of types forgotten.
+     */
+    public int evict(@Nonnull ClassLoader loader){
+        return this.introspectionData.evict(loader);
+    }
+
+    /**
+     * Registers types in bulk on the common ForkJoinPool.
+     * @param types The types to register.
+     * @return The types registered and the failures.
+     * @see #registerTypes(Collection, ForkJoinPool)
+     */
+    public @Nonnull RegistrationReport registerTypes(@Nonnull Collection<? extends Class> types) {
+        return registerTypes(types, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Registers types in bulk, introspecting them in parallel on a pool. Nothing is published until
+     * every type has been introspected. The types are then published one at a time, each replacing any
+     * existing IntrospectionData as {@link #registerType(Class)} does, so the batch is not atomic: a
+     * concurrent invocation may see some of the types registered before the others, and introspects a
+     * type that is not registered yet itself. A type that can't be introspected, including one without any
+     * invokable methods, is reported as a failure and the others are still registered.
+     * @param types The types to register.
+     * @param pool The pool to introspect the types on.
+     * @return The types registered and the failures.
+     */
+    public @Nonnull RegistrationReport registerTypes(@Nonnull Collection<? extends Class> types, @Nonnull ForkJoinPool pool) {
+        long start = System.nanoTime();
+        List<Registration> registrations = new ArrayList<>(types.size());
+        for(Class type : types){
+            registrations.add(new Registration(type.getName(), type, null));
+        }
+        return register(registrations, null, false, pool, start);
+    }
+
+    /**
+     * Registers every class in a package and its subpackages that has invokable methods, introspecting
+     * them in parallel on the common ForkJoinPool. Interfaces, annotations and classes without invokable
+     * methods are skipped.
+     * @param packageName The package, such as "com.example.handlers".
+     * @param loader The class loader to scan and load the classes from.
+     * @return The types registered and skipped, and the failures.
+     * @throws IOException if the class path can't be read.
+     * @see #registerTypes(Collection, ForkJoinPool)
+     */
+    public @Nonnull RegistrationReport registerPackage(@Nonnull String packageName, @Nonnull ClassLoader loader) throws IOException {
+        long start = System.nanoTime();
+        return register(toRegistrations(ClassScanner.scanPackage(packageName, loader)), loader, true, ForkJoinPool.commonPool(), start);
+    }
+
+    /**
+     * Registers the classes listed in a resource, one class name per line, introspecting them in parallel
+     * on the common ForkJoinPool. Blank lines and lines starting with '#' are ignored. A class that can't
+     * be loaded or introspected is reported as a failure.
+     * @param resource The resource name, such as "META-INF/invoker/handlers".
+     * @param loader The class loader to read the resource and load the classes from.
+     * @return The types registered and the failures.
+     * @throws IOException if the resource doesn't exist or can't be read.
+     * @see #registerTypes(Collection, ForkJoinPool)
+     */
+    public @Nonnull RegistrationReport registerTypeList(@Nonnull String resource, @Nonnull ClassLoader loader) throws IOException {
+        long start = System.nanoTime();
+        return register(toRegistrations(ClassScanner.readTypeList(resource, loader)), loader, false, ForkJoinPool.commonPool(), start);
+    }
+
+    private List<Registration> toRegistrations(List<String> names) {
+        List<Registration> registrations = new ArrayList<>(names.size());
+        for(String name : names){
+            registrations.add(new Registration(name, null, null));
+        }
+        return registrations;
+    }
+
+    /**
+     * Saves the introspection data of every registered type to a snapshot file, which a later JVM can
+     * load with {@link #loadSnapshot(Path, ClassLoader)} instead of reflecting on the types again. The
+     * snapshot records the resolved invocation and parameter names, so it must be loaded by an Invoker
+     * with the same naming strategies. Types whose class files can't be read are left out.
+     * @param file The snapshot file to create or replace.
+     * @return The number of types saved.
+     * @throws IOException if the file can't be written.
+     */
+    public int saveSnapshot(@Nonnull Path file) throws IOException {
+        return IntrospectionSnapshot.write(introspectionData.values(), file);
+    }
+
+    /**
+     * Registers the types saved in a snapshot, in parallel on the common ForkJoinPool. A type whose
+     * bytecode is unchanged is restored from the snapshot without reflecting on its methods; a type that
+     * has changed is introspected again and reported in {@link RegistrationReport#getRebuilt()}. A type
+     * that can no longer be loaded is reported as a failure.
+     * @param file The snapshot file written by {@link #saveSnapshot(Path)}
+     * @param loader The class loader to load the types from.
+     * @return The types registered and rebuilt, and the failures.
+     * @throws IOException if the file can't be read or is not a valid snapshot.
+     */
+    public @Nonnull RegistrationReport loadSnapshot(@Nonnull Path file, @Nonnull ClassLoader loader) throws IOException {
+        long start = System.nanoTime();
+        List<IntrospectionSnapshot.Entry> entries = IntrospectionSnapshot.read(file);
+        List<Registration> registrations = new ArrayList<>(entries.size());
+        for(IntrospectionSnapshot.Entry entry : entries){
+            registrations.add(new Registration(entry.getClassName(), null, entry));
+        }
+        return register(registrations, loader, false, ForkJoinPool.commonPool(), start);
+    }
+
+    private RegistrationReport register(List<Registration> registrations, ClassLoader loader, boolean scanned, ForkJoinPool pool, long start) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(registrations.size());
+        for(Registration registration : registrations){
+            tasks.add(pool.submit(() -> registration.introspect(loader, scanned)));
+        }
+        tasks.forEach(ForkJoinTask::join);
+
+        List<Class> registered = new ArrayList<>();
+        List<Class> skipped = new ArrayList<>();
+        List<Class> rebuilt = new ArrayList<>();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        for(Registration registration : registrations){
+            if(registration.failure != null){
+                failures.put(registration.name, registration.failure);
+            } else if(registration.data == null){
+                skipped.add(registration.type);
+            } else {
+                this.introspectionData.put(registration.type, registration.data);
+                registered.add(registration.type);
+                if(registration.rebuilt){
+                    rebuilt.add(registration.type);
+                }
+            }
+        }
+        return new RegistrationReport(registered, skipped, rebuilt, failures, System.nanoTime() - start);
+    }
+
+    /**
+     * One type of a bulk registration, which is written by a single task and read after it is joined.
+     */
+    private class Registration {
+        private final String name;
+        private final IntrospectionSnapshot.Entry snapshot;
+        private Class type;
+        private IntrospectionData data;
+        private boolean rebuilt;
+        private Throwable failure;
+
+        private Registration(String name, Class type, IntrospectionSnapshot.Entry snapshot) {
+            this.name = name;
+            this.type = type;
+            this.snapshot = snapshot;
+        }
+
+        private void introspect(ClassLoader loader, boolean scanned) {
+            try {
+                if(type == null){
+                    type = Class.forName(name, false, loader);
+                }
+                if(scanned && (type.isInterface() || type.isAnnotation() ||
+                        !IntrospectionData.hasInvokableMethods(type, options))){
+                    return;
+                }
+                if(snapshot != null){
+                    if(snapshot.matches(type)){
+                        data = new IntrospectionData(snapshot.toRegistry(type), options);
+                        return;
+                    }
+                    rebuilt = true;
+                }
+                data = Invoker.this.introspect(type);
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                failure = e;
+            }
+        }
     }
 
     /**
@@ -67,8 +296,26 @@ public class Invoker {
      * @return IntrospectionData for the type.
      */
     public IntrospectionData lookupType(@Nonnull Class type){
-        return Optional.ofNullable(this.introspectionData.get(type))
-                .orElseGet(()->registerAndReturn(type));
+        IntrospectionData data = this.introspectionData.get(type);
+        return data != null ? data : this.introspectionData.computeIfAbsent(type, this::introspect);
+    }
+
+    /**
+     * Resolves an invocation once for a fixed, ordered set of parameter names and value types, and returns
+     * a handle that calls the resolved method without matching when it is used with values of that shape.
+     *
+     * @param type The type of the targets the invocation will be used with.
+     * @param methodName The method name to invoke
+     * @param parameterNames The parameter names, in the order values will be passed.
+     * @param parameterTypes The classes of the values that will be passed, with null for a null value.
+     * @return An immutable bound invocation.
+     * @throws InvokerException is thrown if the method could not be resolved.
+     */
+    public BoundInvocation bind(@Nonnull Class type, @Nonnull String methodName,
+                                @Nonnull String[] parameterNames, @Nonnull Class[] parameterTypes) throws InvokerException {
+        InvokableMethod method = lookupType(type).bestMatch(methodName, ParameterShape.of(parameterNames, parameterTypes))
+                .orElseThrow(()-> new InvokerException("Could not resolve method name:" +methodName, null, null, methodName, Collections.emptyList()));
+        return new BoundInvocation(this, type, methodName, parameterNames, parameterTypes, method);
     }
 
     /**
@@ -82,13 +329,35 @@ public class Invoker {
      * @throws InvokerException is thrown generally if there is a reflection problem or the target method could not be resolved.
      */
     public <T> T invoke(Object target, String methodName, List<ParameterValue> values) throws InvokerException {
-        IntrospectionData data = Optional.ofNullable(introspectionData.get(target.getClass()))
-                .orElseGet(()-> registerAndReturn(target.getClass()));
-        Optional<InvokableMethod> method = data.bestMatch(methodName, values);
-        return invoke(target,
-                method.orElseThrow(
-                ()-> new InvokerException("Could not resolve method name:" +methodName, null, target, methodName, values)
-            ), values);
+        try(ArgumentFrame frame = ArgumentFrame.acquire()){
+            return invoke(target, methodName, frame.addAll(values));
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from the values in an ArgumentFrame. Once the
+     * type is registered and the shape of the frame has been resolved, this does not allocate.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param frame values for the named parameters
+     * @param <T> The return type of the method
+     * @return The results of the method, or Void.class if the method has not return value.
+     * @throws InvokerException is thrown generally if there is a reflection problem or the target method could not be resolved.
+     */
+    public <T> T invoke(Object target, String methodName, ArgumentFrame frame) throws InvokerException {
+        if(observed){
+            return invokeObserved(target, methodName, frame);
+        }
+        return resolve(target, methodName, frame).invoke(target, frame);
+    }
+
+    private InvokableMethod resolve(Object target, String methodName, ArgumentFrame frame) throws InvokerException {
+        InvokableMethod method = lookupType(target.getClass()).bestMatch(methodName, frame).orElse(null);
+        if(method == null){
+            throw new InvokerException("Could not resolve method name:" +methodName, null, target, methodName, frame.toParameterValues());
+        }
+        return method;
     }
 
     /**
@@ -102,9 +371,451 @@ public class Invoker {
      * @throws InvokerException is thrown generally if there is a reflection problem or the target method could not be resolved.
      */
     public <T> T invoke(Object target, InvokableMethod method, List<ParameterValue> values) throws InvokerException {
-        HashMap<String, ParameterValue> valuesMap = new HashMap<>();
-        values.forEach(v -> valuesMap.put(v.getName(), v));
-        return method.invoke(target, valuesMap);
+        if(observed){
+            try(ArgumentFrame frame = ArgumentFrame.acquire()){
+                return invoke(target, method, frame.addAll(values).bind(method));
+            }
+        }
+        return method.invoke(target, values);
+    }
+
+    /**
+     * Invokes a method with arguments in the declared parameter order, reporting to the listener and
+     * sampler if there are any.
+     */
+    <T> T invoke(Object target, InvokableMethod method, Object[] arguments) throws InvokerException {
+        if(!observed){
+            return method.invoke(target, arguments);
+        }
+        Class type = target.getClass();
+        long start = invoking(type, method);
+        try {
+            T result = method.invoke(target, arguments);
+            executed(type, method, arguments, start);
+            return result;
+        } catch (InvokerException e) {
+            executionFailed(type, method, arguments, start, e);
+            throw e;
+        }
+    }
+
+    private <T> T invokeObserved(Object target, String methodName, ArgumentFrame frame) throws InvokerException {
+        Class type = target.getClass();
+        long start = System.nanoTime();
+        InvokableMethod method = resolveObserved(type, target, methodName, frame, start);
+        long resolved = invoking(type, method);
+        try {
+            T result = method.invoke(target, frame);
+            invoked(type, methodName, method, frame, start, resolved);
+            return result;
+        } catch (InvokerException e) {
+            failed(type, methodName, method, frame, start, resolved, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves a method, reporting the resolution to the listener, and a failure to the sampler too.
+     */
+    private InvokableMethod resolveObserved(Class type, Object target, String methodName, ArgumentFrame frame, long start) throws InvokerException {
+        IntrospectionData data = lookupType(type);
+        InvokableMethod method = (listener == null ? data.bestMatch(methodName, frame) : data.bestMatch(methodName, frame, listener))
+                .orElse(null);
+        if(method == null){
+            long elapsed = System.nanoTime() - start;
+            InvokerException e = new InvokerException("Could not resolve method name:" +methodName, null, target, methodName, frame.toParameterValues());
+            if(listener != null){
+                listener.failed(type, methodName, null, elapsed, e);
+            }
+            sample(type, methodName, frame, elapsed, 0, true);
+            throw e;
+        }
+        return method;
+    }
+
+    /**
+     * Resolves a method for a batch of requests, reporting the resolution to the listener as
+     * {@link #resolveObserved} does.
+     */
+    Optional<InvokableMethod> resolveBatched(Class type, String methodName, ParameterShape shape) {
+        IntrospectionData data = lookupType(type);
+        return listener == null ? data.bestMatch(methodName, shape) : data.bestMatch(methodName, shape, listener);
+    }
+
+    /**
+     * Reports a request of a batch that could not be resolved to the listener and sampler.
+     */
+    void unresolved(Class type, String methodName, ParameterShape shape, long nanos, InvokerException e) {
+        if(listener != null){
+            listener.failed(type, methodName, null, nanos, e);
+        }
+        sample(type, methodName, shape, nanos, 0, true);
+    }
+
+    /**
+     * Tells the listener that a call is starting.
+     * @return The start time of the call.
+     */
+    private long invoking(Class type, InvokableMethod method) {
+        if(listener != null){
+            listener.invoking(type, method);
+        }
+        return System.nanoTime();
+    }
+
+    private void invoked(Class type, String methodName, InvokableMethod method, ParameterShape shape, long start, long resolved) {
+        long elapsed = System.nanoTime() - resolved;
+        if(listener != null){
+            listener.invoked(type, method, elapsed);
+        }
+        sample(type, methodName, shape, resolved - start, elapsed, false);
+    }
+
+    private void failed(Class type, String methodName, InvokableMethod method, ParameterShape shape, long start, long resolved, InvokerException e) {
+        long elapsed = System.nanoTime() - resolved;
+        if(listener != null){
+            listener.failed(type, methodName, method, elapsed, e);
+        }
+        sample(type, methodName, shape, resolved - start, elapsed, true);
+    }
+
+    private void executed(Class type, InvokableMethod method, Object[] arguments, long start) {
+        long elapsed = System.nanoTime() - start;
+        if(listener != null){
+            listener.invoked(type, method, elapsed);
+        }
+        sample(type, method, arguments, elapsed, false);
+    }
+
+    private void executionFailed(Class type, InvokableMethod method, Object[] arguments, long start, InvokerException e) {
+        long elapsed = System.nanoTime() - start;
+        if(listener != null){
+            listener.failed(type, method.getName(), method, elapsed, e);
+        }
+        sample(type, method, arguments, elapsed, true);
+    }
+
+    private void sample(Class type, String methodName, ParameterShape shape, long resolutionNanos, long executionNanos, boolean failed) {
+        if(sampler != null){
+            sampler.record(type, methodName, shape, resolutionNanos, executionNanos, failed);
+        }
+    }
+
+    private void sample(Class type, InvokableMethod method, Object[] arguments, long executionNanos, boolean failed) {
+        if(sampler != null && sampler.isSlow(executionNanos)){
+            String[] names = new String[arguments.length];
+            Class[] types = new Class[arguments.length];
+            for(NamedParameter parameter : method.getParameters()){
+                Object argument = arguments[parameter.getSlot()];
+                names[parameter.getSlot()] = parameter.getName();
+                types[parameter.getSlot()] = argument == null ? null : argument.getClass();
+            }
+            sampler.record(type, method.getName(), ParameterShape.of(names, types), 0, executionNanos, failed);
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from a list of ParameterValues, returning an int
+     * without boxing it when the method is called through a handle.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return an int.
+     * @see InvokableMethod#canReturn(Class)
+     */
+    public int invokeInt(Object target, String methodName, List<ParameterValue> values) throws InvokerException {
+        try(ArgumentFrame frame = ArgumentFrame.acquire()){
+            return invokeInt(target, methodName, frame.addAll(values));
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from the values in an ArgumentFrame, returning an int
+     * without boxing it when the method is called through a handle.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param frame values for the named parameters
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return an int.
+     * @see InvokableMethod#canReturn(Class)
+     */
+    public int invokeInt(Object target, String methodName, ArgumentFrame frame) throws InvokerException {
+        if(!observed){
+            return resolve(target, methodName, frame).invokeInt(target, frame);
+        }
+        Class type = target.getClass();
+        long start = System.nanoTime();
+        InvokableMethod method = resolveObserved(type, target, methodName, frame, start);
+        long resolved = invoking(type, method);
+        try {
+            int result = method.invokeInt(target, frame);
+            invoked(type, methodName, method, frame, start, resolved);
+            return result;
+        } catch (InvokerException e) {
+            failed(type, methodName, method, frame, start, resolved, e);
+            throw e;
+        }
+    }
+
+    int invokeInt(Object target, InvokableMethod method, Object[] arguments) throws InvokerException {
+        if(!observed){
+            return method.invokeInt(target, arguments);
+        }
+        Class type = target.getClass();
+        long start = invoking(type, method);
+        try {
+            int result = method.invokeInt(target, arguments);
+            executed(type, method, arguments, start);
+            return result;
+        } catch (InvokerException e) {
+            executionFailed(type, method, arguments, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from a list of ParameterValues, returning a long
+     * without boxing it when the method is called through a handle.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a long.
+     * @see InvokableMethod#canReturn(Class)
+     */
+    public long invokeLong(Object target, String methodName, List<ParameterValue> values) throws InvokerException {
+        try(ArgumentFrame frame = ArgumentFrame.acquire()){
+            return invokeLong(target, methodName, frame.addAll(values));
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from the values in an ArgumentFrame, returning a long
+     * without boxing it when the method is called through a handle.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param frame values for the named parameters
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a long.
+     * @see InvokableMethod#canReturn(Class)
+     */
+    public long invokeLong(Object target, String methodName, ArgumentFrame frame) throws InvokerException {
+        if(!observed){
+            return resolve(target, methodName, frame).invokeLong(target, frame);
+        }
+        Class type = target.getClass();
+        long start = System.nanoTime();
+        InvokableMethod method = resolveObserved(type, target, methodName, frame, start);
+        long resolved = invoking(type, method);
+        try {
+            long result = method.invokeLong(target, frame);
+            invoked(type, methodName, method, frame, start, resolved);
+            return result;
+        } catch (InvokerException e) {
+            failed(type, methodName, method, frame, start, resolved, e);
+            throw e;
+        }
+    }
+
+    long invokeLong(Object target, InvokableMethod method, Object[] arguments) throws InvokerException {
+        if(!observed){
+            return method.invokeLong(target, arguments);
+        }
+        Class type = target.getClass();
+        long start = invoking(type, method);
+        try {
+            long result = method.invokeLong(target, arguments);
+            executed(type, method, arguments, start);
+            return result;
+        } catch (InvokerException e) {
+            executionFailed(type, method, arguments, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from a list of ParameterValues, returning a double
+     * without boxing it when the method is called through a handle.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a double.
+     * @see InvokableMethod#canReturn(Class)
+     */
+    public double invokeDouble(Object target, String methodName, List<ParameterValue> values) throws InvokerException {
+        try(ArgumentFrame frame = ArgumentFrame.acquire()){
+            return invokeDouble(target, methodName, frame.addAll(values));
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from the values in an ArgumentFrame, returning a double
+     * without boxing it when the method is called through a handle.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param frame values for the named parameters
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a double.
+     * @see InvokableMethod#canReturn(Class)
+     */
+    public double invokeDouble(Object target, String methodName, ArgumentFrame frame) throws InvokerException {
+        if(!observed){
+            return resolve(target, methodName, frame).invokeDouble(target, frame);
+        }
+        Class type = target.getClass();
+        long start = System.nanoTime();
+        InvokableMethod method = resolveObserved(type, target, methodName, frame, start);
+        long resolved = invoking(type, method);
+        try {
+            double result = method.invokeDouble(target, frame);
+            invoked(type, methodName, method, frame, start, resolved);
+            return result;
+        } catch (InvokerException e) {
+            failed(type, methodName, method, frame, start, resolved, e);
+            throw e;
+        }
+    }
+
+    double invokeDouble(Object target, InvokableMethod method, Object[] arguments) throws InvokerException {
+        if(!observed){
+            return method.invokeDouble(target, arguments);
+        }
+        Class type = target.getClass();
+        long start = invoking(type, method);
+        try {
+            double result = method.invokeDouble(target, arguments);
+            executed(type, method, arguments, start);
+            return result;
+        } catch (InvokerException e) {
+            executionFailed(type, method, arguments, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from a list of ParameterValues, returning a boolean
+     * without boxing it when the method is called through a handle.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a boolean.
+     * @see InvokableMethod#canReturn(Class)
+     */
+    public boolean invokeBoolean(Object target, String methodName, List<ParameterValue> values) throws InvokerException {
+        try(ArgumentFrame frame = ArgumentFrame.acquire()){
+            return invokeBoolean(target, methodName, frame.addAll(values));
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from the values in an ArgumentFrame, returning a boolean
+     * without boxing it when the method is called through a handle.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param frame values for the named parameters
+     * @return The results of the method.
+     * @throws InvokerException if the method could not be resolved or called, or does not return a boolean.
+     * @see InvokableMethod#canReturn(Class)
+     */
+    public boolean invokeBoolean(Object target, String methodName, ArgumentFrame frame) throws InvokerException {
+        if(!observed){
+            return resolve(target, methodName, frame).invokeBoolean(target, frame);
+        }
+        Class type = target.getClass();
+        long start = System.nanoTime();
+        InvokableMethod method = resolveObserved(type, target, methodName, frame, start);
+        long resolved = invoking(type, method);
+        try {
+            boolean result = method.invokeBoolean(target, frame);
+            invoked(type, methodName, method, frame, start, resolved);
+            return result;
+        } catch (InvokerException e) {
+            failed(type, methodName, method, frame, start, resolved, e);
+            throw e;
+        }
+    }
+
+    boolean invokeBoolean(Object target, InvokableMethod method, Object[] arguments) throws InvokerException {
+        if(!observed){
+            return method.invokeBoolean(target, arguments);
+        }
+        Class type = target.getClass();
+        long start = invoking(type, method);
+        try {
+            boolean result = method.invokeBoolean(target, arguments);
+            executed(type, method, arguments, start);
+            return result;
+        } catch (InvokerException e) {
+            executionFailed(type, method, arguments, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from a list of ParameterValues, discarding any result.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @throws InvokerException is thrown generally if there is a reflection problem or the target method could not be resolved.
+     */
+    public void invokeVoid(Object target, String methodName, List<ParameterValue> values) throws InvokerException {
+        try(ArgumentFrame frame = ArgumentFrame.acquire()){
+            invokeVoid(target, methodName, frame.addAll(values));
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object from the values in an ArgumentFrame, discarding any result.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param frame values for the named parameters
+     * @throws InvokerException is thrown generally if there is a reflection problem or the target method could not be resolved.
+     */
+    public void invokeVoid(Object target, String methodName, ArgumentFrame frame) throws InvokerException {
+        if(!observed){
+            resolve(target, methodName, frame).invokeVoid(target, frame);
+            return;
+        }
+        Class type = target.getClass();
+        long start = System.nanoTime();
+        InvokableMethod method = resolveObserved(type, target, methodName, frame, start);
+        long resolved = invoking(type, method);
+        try {
+            method.invokeVoid(target, frame);
+            invoked(type, methodName, method, frame, start, resolved);
+        } catch (InvokerException e) {
+            failed(type, methodName, method, frame, start, resolved, e);
+            throw e;
+        }
+    }
+
+    void invokeVoid(Object target, InvokableMethod method, Object[] arguments) throws InvokerException {
+        if(!observed){
+            method.invokeVoid(target, arguments);
+            return;
+        }
+        Class type = target.getClass();
+        long start = invoking(type, method);
+        try {
+            method.invokeVoid(target, arguments);
+            executed(type, method, arguments, start);
+        } catch (InvokerException e) {
+            executionFailed(type, method, arguments, start, e);
+            throw e;
+        }
     }
 
     /**
@@ -117,12 +828,166 @@ public class Invoker {
      * @throws InvokerException is thrown generally if there is a reflection problem or the target method could not be resolved.
      */
     public <T> T invoke(Object target, String methodName, Map<String, Object> values) throws InvokerException {
-        return invoke(target, methodName, values.entrySet().stream().map(e-> new ParameterValue(e.getKey(), e.getValue())).collect(Collectors.toList()));
+        try(ArgumentFrame frame = ArgumentFrame.acquire()){
+            return invoke(target, methodName, frame.addAll(values));
+        }
+    }
+
+    /**
+     * Invokes the named method on the target object asynchronously, on the default executor from the options.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @param <T> The return type of the method
+     * @return A future of the results of the method
+     * @see #invokeAsync(Object, String, List, Executor)
+     */
+    public <T> CompletableFuture<T> invokeAsync(Object target, String methodName, List<ParameterValue> values) {
+        return invokeAsync(target, methodName, values, asyncExecutor);
     }
 
-    private IntrospectionData registerAndReturn(@Nonnull Class type){
-        IntrospectionData data = new IntrospectionData(type, this.findInvocationName, this.findMethodName);
-        this.introspectionData.put(type, data);
+    /**
+     * Invokes the named method on the target object asynchronously.
+     * <p>
+     * The method is resolved on the calling thread. If it returns a CompletionStage it is called on
+     * the calling thread too, since it is expected not to block, and the returned future completes
+     * with the stage. Any other method is called on the executor. Failures, including an
+     * InvokerException when no method matches, complete the future exceptionally.
+     * </p>
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @param executor The executor to call the method on
+     * @param <T> The return type of the method, or of the CompletionStage it returns
+     * @return A future of the results of the method, or Void.class if the method has no return value.
+     */
+    public <T> CompletableFuture<T> invokeAsync(Object target, String methodName, List<ParameterValue> values, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        InvokableMethod method;
+        try {
+            method = lookupType(target.getClass()).bestMatch(methodName, values)
+                    .orElseThrow(() -> new InvokerException("Could not resolve method name:" + methodName, null, target, methodName, values));
+        } catch (InvokerException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        if(CompletionStage.class.isAssignableFrom(method.getReturnType())){
+            complete(future, () -> invoke(target, method, values));
+            return future;
+        }
+        try {
+            executor.execute(() -> complete(future, () -> invoke(target, method, values)));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Invokes the named method on the target object asynchronously from a map of values, on the
+     * default executor from the options.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @param <T> The return type of the method
+     * @return A future of the results of the method
+     * @see #invokeAsync(Object, String, List, Executor)
+     */
+    public <T> CompletableFuture<T> invokeAsync(Object target, String methodName, Map<String, Object> values) {
+        return invokeAsync(target, methodName, values, asyncExecutor);
+    }
+
+    /**
+     * Invokes the named method on the target object asynchronously from a map of values.
+     *
+     * @param target The object to invoke on
+     * @param methodName The method name to invoke
+     * @param values values for the named parameters
+     * @param executor The executor to call the method on
+     * @param <T> The return type of the method
+     * @return A future of the results of the method
+     * @see #invokeAsync(Object, String, List, Executor)
+     */
+    public <T> CompletableFuture<T> invokeAsync(Object target, String methodName, Map<String, Object> values, Executor executor) {
+        List<ParameterValue> list = new ArrayList<>(values.size());
+        values.forEach((name, value) -> list.add(new ParameterValue(name, value)));
+        return invokeAsync(target, methodName, list, executor);
+    }
+
+    /**
+     * Invokes a batch of requests on the common ForkJoinPool.
+     *
+     * @param requests The requests.
+     * @param <T> The return type of the methods
+     * @return The outcome of each request, in the order of the requests.
+     * @see #invokeAll(List, ForkJoinPool)
+     */
+    public <T> List<InvocationResult<T>> invokeAll(@Nonnull List<InvocationRequest> requests) {
+        return invokeAll(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Invokes a batch of requests. Requests with the same target class, invocation name and parameter
+     * shape are resolved once, and the calls are then split across the pool, whose parallelism decides
+     * how many run at once. A request that fails, including one that matches no method, does not
+     * affect the others: its result holds the exception.
+     *
+     * @param requests The requests.
+     * @param pool The pool to run the calls on.
+     * @param <T> The return type of the methods
+     * @return The outcome of each request, in the order of the requests.
+     */
+    public <T> List<InvocationResult<T>> invokeAll(@Nonnull List<InvocationRequest> requests, @Nonnull ForkJoinPool pool) {
+        return new BatchInvocation(this, requests).run(pool);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void complete(CompletableFuture<T> future, Callable<Object> call) {
+        Object result;
+        try {
+            result = call.call();
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            return;
+        }
+        if(result instanceof CompletionStage){
+            ((CompletionStage<T>) result).whenComplete((value, failure) -> {
+                if(failure != null){
+                    future.completeExceptionally(failure);
+                } else {
+                    future.complete(value);
+                }
+            });
+        } else {
+            future.complete((T) result);
+        }
+    }
+
+    private IntrospectionData introspect(@Nonnull Class type){
+        if(listener == null){
+            return createIntrospectionData(type);
+        }
+        listener.introspecting(type);
+        long start = System.nanoTime();
+        IntrospectionData data = createIntrospectionData(type);
+        listener.introspected(type, data.getMethodCount(), System.nanoTime() - start);
         return data;
     }
+
+    private IntrospectionData createIntrospectionData(@Nonnull Class type){
+        // Generated registries carry names derived from the built in annotations, so they
+        // can't be used with custom naming strategies.
+        if(options.getInvocationEngine() == InvocationEngine.GENERATED &&
+                !options.getFindInvocationName().isPresent() &&
+                !options.getFindParameterName().isPresent()){
+            InvokerRegistry registry = registries.find(type);
+            if(registry != null){
+                return new IntrospectionData(registry, this.options);
+            }
+        }
+        return new IntrospectionData(type, this.options);
+    }
 }
@@ -0,0 +1,273 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import net.kebernet.invoker.runtime.metrics.SlowInvocationSampler;
+import net.kebernet.invoker.runtime.spi.InvokerListener;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * An immutable set of configuration options for an {@link Invoker} and the introspection data it builds.
+ * Instances are created with {@link #builder()}.
+ */
+public class InvokerOptions {
+
+    private static final InvokerOptions DEFAULTS = builder().build();
+
+    private final Optional<Function<Method, String>> findInvocationName;
+    private final Optional<Function<Parameter, String>> findParameterName;
+    private final InvocationEngine invocationEngine;
+    private final int resolutionCacheSize;
+    private final boolean lazyIntrospection;
+    private final Optional<InvokerListener> listener;
+    private final Optional<SlowInvocationSampler> slowInvocationSampler;
+    private final Optional<Executor> asyncExecutor;
+    private final Optional<TypeCoercion> coercion;
+
+    private InvokerOptions(Builder builder) {
+        this.findInvocationName = Optional.ofNullable(builder.findInvocationName);
+        this.findParameterName = Optional.ofNullable(builder.findParameterName);
+        this.invocationEngine = builder.invocationEngine;
+        this.resolutionCacheSize = builder.resolutionCacheSize;
+        this.lazyIntrospection = builder.lazyIntrospection;
+        this.listener = Optional.ofNullable(builder.listener);
+        this.slowInvocationSampler = Optional.ofNullable(builder.slowInvocationSampler);
+        this.asyncExecutor = Optional.ofNullable(builder.asyncExecutor);
+        this.coercion = Optional.ofNullable(builder.coercion);
+    }
+
+    /**
+     * The default options.
+     * @return Options using the built in annotations and reflective invocation.
+     */
+    public static @Nonnull InvokerOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Creates a new Builder.
+     * @return A builder initialized with the default values.
+     */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A strategy for finding the invocation name of a method.
+     * @return The strategy, or empty to use the built in annotations.
+     */
+    public @Nonnull Optional<Function<Method, String>> getFindInvocationName() {
+        return findInvocationName;
+    }
+
+    /**
+     * A strategy for finding the name of a parameter.
+     * @return The strategy, or empty to use the built in annotations.
+     */
+    public @Nonnull Optional<Function<Parameter, String>> getFindParameterName() {
+        return findParameterName;
+    }
+
+    /**
+     * The engine used to call methods.
+     * @return The invocation engine.
+     */
+    public @Nonnull InvocationEngine getInvocationEngine() {
+        return invocationEngine;
+    }
+
+    /**
+     * The maximum number of resolved (invocation name, parameter shape) entries cached for each type.
+     * @return The cache size, or 0 if resolutions are not cached.
+     */
+    public int getResolutionCacheSize() {
+        return resolutionCacheSize;
+    }
+
+    /**
+     * Whether the methods of a type are introspected the first time their invocation name is resolved,
+     * rather than when the type is registered.
+     * @return true if introspection is lazy.
+     */
+    public boolean isLazyIntrospection() {
+        return lazyIntrospection;
+    }
+
+    /**
+     * The listener receiving timings and outcomes.
+     * @return The listener, if any.
+     */
+    public @Nonnull Optional<InvokerListener> getListener() {
+        return listener;
+    }
+
+    /**
+     * The sampler keeping traces of slow invocations.
+     * @return The sampler, if any.
+     */
+    public @Nonnull Optional<SlowInvocationSampler> getSlowInvocationSampler() {
+        return slowInvocationSampler;
+    }
+
+    /**
+     * The executor asynchronous invocations run on when none is given.
+     * @return The executor, if one was set.
+     */
+    public @Nonnull Optional<Executor> getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * The conversions applied to values that can't be passed to a parameter as they are.
+     * @return The coercion, or empty if values must match the parameter types.
+     */
+    public @Nonnull Optional<TypeCoercion> getCoercion() {
+        return coercion;
+    }
+
+    /**
+     * A builder for InvokerOptions.
+     */
+    public static class Builder {
+        private Function<Method, String> findInvocationName;
+        private Function<Parameter, String> findParameterName;
+        private InvocationEngine invocationEngine = InvocationEngine.REFLECTION;
+        private int resolutionCacheSize = 1024;
+        private boolean lazyIntrospection;
+        private InvokerListener listener;
+        private SlowInvocationSampler slowInvocationSampler;
+        private Executor asyncExecutor;
+        private TypeCoercion coercion;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the strategy for finding the invocation name of a method.
+         * @param findInvocationName The strategy, or null to use the built in annotations.
+         * @return this
+         */
+        public @Nonnull Builder findInvocationName(@Nullable Function<Method, String> findInvocationName) {
+            this.findInvocationName = findInvocationName;
+            return this;
+        }
+
+        /**
+         * Sets the strategy for finding the name of a parameter.
+         * @param findParameterName The strategy, or null to use the built in annotations.
+         * @return this
+         */
+        public @Nonnull Builder findParameterName(@Nullable Function<Parameter, String> findParameterName) {
+            this.findParameterName = findParameterName;
+            return this;
+        }
+
+        /**
+         * Sets the engine used to call methods.
+         * @param invocationEngine The invocation engine.
+         * @return this
+         */
+        public @Nonnull Builder invocationEngine(@Nonnull InvocationEngine invocationEngine) {
+            this.invocationEngine = invocationEngine;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of resolved (invocation name, parameter shape) entries cached for each type.
+         * The cache of a type is allocated when a name is first resolved on it.
+         * @param resolutionCacheSize The cache size, or 0 to resolve every invocation. The default is 1024.
+         * @return this
+         */
+        public @Nonnull Builder resolutionCacheSize(int resolutionCacheSize) {
+            if(resolutionCacheSize < 0){
+                throw new IllegalArgumentException("Cache size can't be negative: "+resolutionCacheSize);
+            }
+            this.resolutionCacheSize = resolutionCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets whether registering a type only indexes the invocation names of its methods, introspecting
+         * the methods and parameters under a name the first time that name is resolved. This keeps the
+         * cost of types with many invokable methods in proportion to the methods actually called.
+         * @param lazyIntrospection true for lazy introspection. The default is false.
+         * @return this
+         */
+        public @Nonnull Builder lazyIntrospection(boolean lazyIntrospection) {
+            this.lazyIntrospection = lazyIntrospection;
+            return this;
+        }
+
+        /**
+         * Sets a listener to receive introspection, resolution and invocation timings and outcomes.
+         * When no listener is set none of them are measured.
+         * @param listener The listener, or null for none.
+         * @return this
+         */
+        public @Nonnull Builder listener(@Nullable InvokerListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Sets a sampler to keep traces of invocations slower than its threshold.
+         * @param slowInvocationSampler The sampler, or null for none.
+         * @return this
+         */
+        public @Nonnull Builder slowInvocationSampler(@Nullable SlowInvocationSampler slowInvocationSampler) {
+            this.slowInvocationSampler = slowInvocationSampler;
+            return this;
+        }
+
+        /**
+         * Sets the executor asynchronous invocations run on when none is given. The default is a
+         * virtual thread per invocation on JVMs that have them, and the common ForkJoinPool otherwise.
+         * @param asyncExecutor The executor, or null for the default.
+         * @return this
+         */
+        public @Nonnull Builder asyncExecutor(@Nullable Executor asyncExecutor) {
+            this.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        /**
+         * Sets the conversions applied to values that can't be passed to a parameter as they are, such
+         * as strings from a query string. Converting a value adds to the match distance of a method.
+         * @param coercion The coercion, for example {@link TypeCoercion#defaults()}, or null to require
+         *                 values to match the parameter types. This is the default.
+         * @return this
+         */
+        public @Nonnull Builder coercion(@Nullable TypeCoercion coercion) {
+            this.coercion = coercion;
+            return this;
+        }
+
+        /**
+         * Creates the options.
+         * @return A new immutable InvokerOptions.
+         */
+        public @Nonnull InvokerOptions build() {
+            return new InvokerOptions(this);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of registering types in bulk. A type that fails to load or introspect is reported here
+ * instead of stopping the rest of the registration.
+ */
+public final class RegistrationReport {
+
+    private final List<Class> registered;
+    private final List<Class> skipped;
+    private final List<Class> rebuilt;
+    private final Map<String, Throwable> failures;
+    private final long elapsedNanos;
+
+    RegistrationReport(@Nonnull List<Class> registered, @Nonnull List<Class> skipped, @Nonnull List<Class> rebuilt,
+                       @Nonnull Map<String, Throwable> failures, long elapsedNanos) {
+        this.registered = Collections.unmodifiableList(registered);
+        this.skipped = Collections.unmodifiableList(skipped);
+        this.rebuilt = Collections.unmodifiableList(rebuilt);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * The types that were introspected and published.
+     * @return The types, in the order they were given or found.
+     */
+    public @Nonnull List<Class> getRegistered() {
+        return registered;
+    }
+
+    /**
+     * The types found by scanning a package that have no invokable methods, which are not registered.
+     * @return The types, in the order they were found.
+     */
+    public @Nonnull List<Class> getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * The types loaded from a snapshot whose bytecode had changed, which were introspected again.
+     * These are also included in {@link #getRegistered()}.
+     * @return The types, in the order they appear in the snapshot.
+     */
+    public @Nonnull List<Class> getRebuilt() {
+        return rebuilt;
+    }
+
+    /**
+     * The types that could not be loaded or introspected.
+     * @return The exception for each type, by class name, in the order they were given or found.
+     */
+    public @Nonnull Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Whether every type was registered or skipped.
+     * @return true if there were no failures.
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * The time taken to load, introspect and publish the types.
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("RegistrationReport{")
+                .append("registered=").append(registered.size())
+                .append(", skipped=").append(skipped.size())
+                .append(", rebuilt=").append(rebuilt.size())
+                .append(", failures=").append(failures.keySet())
+                .append(", elapsedNanos=").append(elapsedNanos)
+                .append('}')
+                .toString();
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Converts argument values to the declared types of parameters that they can't be passed to
+ * directly: strings to numbers, booleans, characters and enums, numeric widening, and adapting
+ * collections and arrays to each other.
+ * <p>
+ * Each conversion has a cost that is added to the match distance of a method, so a method taking the
+ * supplied types as they are is preferred over one that needs them converted. The converter for a
+ * (source class, parameter type) pair, which may chain two registered conversions, is compiled the
+ * first time it is needed and cached. The cache never keeps a class loader from being unloaded,
+ * whether it loaded the coercion and its rules or the classes converted between. Values are only
+ * converted when they are bound to the chosen method, once per argument.
+ * </p>
+ * Instances are immutable apart from the converter cache and are created with {@link #builder()}.
+ */
+public class TypeCoercion {
+
+    /**
+     * The cost of numeric widening, per step from byte to short, int, long, float and double.
+     */
+    public static final int WIDENING_COST = 1;
+    /**
+     * The cost of adapting a collection or an array to another container type.
+     */
+    public static final int COLLECTION_COST = 2;
+    /**
+     * The cost of parsing a string.
+     */
+    public static final int PARSE_COST = 4;
+
+    private static final Class[] NUMERIC_ORDER = {Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class};
+    private static final Converter IDENTITY = new Converter(0, v -> v);
+    private static final Converter NONE = new Converter(-1, v -> {
+        throw new IllegalArgumentException("No conversion for " + v);
+    });
+    private static final TypeCoercion DEFAULTS = builder().build();
+
+    private final List<Rule> rules;
+    private volatile Converters converters;
+
+    private TypeCoercion(Builder builder) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(builder.rules));
+        this.converters = new Converters(rules);
+    }
+
+    /**
+     * The built in conversions.
+     * @return A coercion with only the built in conversions.
+     */
+    public static @Nonnull TypeCoercion defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Creates a new Builder.
+     * @return A builder with the built in conversions registered.
+     */
+    public static @Nonnull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The cost of converting values of a class to a parameter type.
+     * @param source The class of the value.
+     * @param target The declared parameter type.
+     * @return 0 if no conversion is needed, the cost of the conversion, or -1 if there is none.
+     */
+    public int costOf(@Nonnull Class source, @Nonnull Class target) {
+        return find(source, target).getCost();
+    }
+
+    /**
+     * Finds the compiled converter from a class to a parameter type.
+     * @param source The class of the value.
+     * @param target The declared parameter type.
+     * @return The converter, which has a negative cost if there is no conversion.
+     */
+    public @Nonnull Converter find(@Nonnull Class source, @Nonnull Class target) {
+        return converters.find(source, target);
+    }
+
+    /**
+     * Discards the compiled converters, for example when the class loader of a web application is
+     * evicted. They are compiled again as they are needed. The converters never keep a class from being
+     * unloaded, but those of unloaded classes are only released here.
+     */
+    public void clearCache() {
+        converters = new Converters(rules);
+    }
+
+    /**
+     * Converts a value to a parameter type.
+     * @param value The value.
+     * @param target The declared parameter type.
+     * @return The value unmodified if it is null or already of the type, otherwise the converted value.
+     * @throws IllegalArgumentException if there is no conversion or the value can't be converted.
+     */
+    public @Nullable Object coerce(@Nullable Object value, @Nonnull Class target) {
+        return coerce(converters, value, target);
+    }
+
+    private static Object coerce(Converters converters, Object value, Class target) {
+        if(value == null || box(target).isInstance(value)){
+            return value;
+        }
+        Converter converter = converters.find(value.getClass(), target);
+        if(converter.getCost() < 0){
+            throw new IllegalArgumentException("Can't convert " + value.getClass().getName() + " to " + target.getName());
+        }
+        return converter.convert(value);
+    }
+
+    private static Converter compile(Converters converters, Class source, Class target) {
+        List<Rule> rules = converters.rules;
+        Class boxed = box(target);
+        if(boxed.isAssignableFrom(source)){
+            return IDENTITY;
+        }
+        Converter best = direct(converters, source, boxed);
+        if(best != null){
+            return best;
+        }
+        for(Rule first : rules){
+            if(!first.source.isAssignableFrom(source)){
+                continue;
+            }
+            Converter second = direct(converters, first.target, boxed);
+            if(second != null && (best == null || first.cost + second.getCost() < best.getCost())){
+                Function<Object, Object> head = first.function;
+                Function<Object, Object> tail = second.function;
+                best = new Converter(first.cost + second.getCost(), v -> tail.apply(head.apply(v)));
+            }
+        }
+        return best == null ? NONE : best;
+    }
+
+    /**
+     * Finds the cheapest single conversion from a class to a boxed type.
+     */
+    private static Converter direct(Converters converters, Class source, Class boxed) {
+        Rule best = null;
+        for(Rule rule : converters.rules){
+            if(rule.source.isAssignableFrom(source) && boxed.isAssignableFrom(rule.target) &&
+                    (best == null || rule.cost < best.cost)){
+                best = rule;
+            }
+        }
+        if(best != null){
+            return new Converter(best.cost, best.function);
+        }
+        if(source == String.class && boxed.isEnum()){
+            WeakReference<Class> type = new WeakReference<>(boxed);
+            return new Converter(PARSE_COST, v -> toEnum(type.get(), (String) v));
+        }
+        if(boxed.isArray() && (Collection.class.isAssignableFrom(source) || source.isArray())){
+            WeakReference<Class> component = new WeakReference<>(boxed.getComponentType());
+            return new Converter(COLLECTION_COST, v -> toArray(converters, toList(v), component.get()));
+        }
+        if((Collection.class.isAssignableFrom(source) || source.isArray())){
+            if(boxed.isAssignableFrom(ArrayList.class)){
+                return new Converter(COLLECTION_COST, TypeCoercion::toList);
+            }
+            if(boxed.isAssignableFrom(LinkedHashSet.class)){
+                return new Converter(COLLECTION_COST, v -> new LinkedHashSet<>(toList(v)));
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object toEnum(Class type, String value) {
+        return Enum.valueOf(type, value);
+    }
+
+    private static List<Object> toList(Object value) {
+        if(value instanceof Collection){
+            return new ArrayList<Object>((Collection<?>) value);
+        }
+        int length = Array.getLength(value);
+        List<Object> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(Array.get(value, i));
+        }
+        return list;
+    }
+
+    private static Object toArray(Converters converters, List<Object> values, Class component) {
+        Object array = Array.newInstance(component, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Array.set(array, i, coerce(converters, values.get(i), component));
+        }
+        return array;
+    }
+
+    /**
+     * The wrapper class of a primitive type.
+     * @param type A type.
+     * @return The wrapper class, or the type itself if it is not primitive.
+     */
+    static Class box(Class type) {
+        if(!type.isPrimitive()){
+            return type;
+        }
+        if(type == Integer.TYPE) return Integer.class;
+        if(type == Long.TYPE) return Long.class;
+        if(type == Boolean.TYPE) return Boolean.class;
+        if(type == Double.TYPE) return Double.class;
+        if(type == Float.TYPE) return Float.class;
+        if(type == Character.TYPE) return Character.class;
+        if(type == Byte.TYPE) return Byte.class;
+        if(type == Short.TYPE) return Short.class;
+        return Void.class;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if("true".equalsIgnoreCase(value)){
+            return Boolean.TRUE;
+        } else if("false".equalsIgnoreCase(value)){
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("Not a boolean: " + value);
+    }
+
+    private static Character parseCharacter(String value) {
+        if(value.length() != 1){
+            throw new IllegalArgumentException("Not a single character: " + value);
+        }
+        return value.charAt(0);
+    }
+
+    /**
+     * A compiled conversion from one class to a parameter type.
+     */
+    public static final class Converter {
+        private final int cost;
+        private final Function<Object, Object> function;
+
+        private Converter(int cost, Function<Object, Object> function) {
+            this.cost = cost;
+            this.function = function;
+        }
+
+        /**
+         * The cost added to the match distance of a method using this conversion.
+         * @return The cost, 0 if the value is passed as is, or -1 if there is no conversion.
+         */
+        public int getCost() {
+            return cost;
+        }
+
+        /**
+         * Converts a value.
+         * @param value The value, of the source class.
+         * @return The converted value.
+         * @throws IllegalArgumentException if the value can't be converted.
+         */
+        public Object convert(@Nonnull Object value) {
+            return function.apply(value);
+        }
+    }
+
+    /**
+     * The converters by source class. A ClassValue's values stay with their class even after the
+     * ClassValue is gone, so anything stored with String that refers to a coercion would keep the class
+     * loader of the coercion and its rules from being unloaded. The classes therefore only hold
+     * WeakReferences, a JDK class, and the converters are held strongly by the coercion instead.
+     */
+    private static final class Converters extends ClassValue<WeakReference<ConvertersFrom>> {
+        private final List<Rule> rules;
+        private final Queue<ConvertersFrom> held = new ConcurrentLinkedQueue<>();
+
+        private Converters(List<Rule> rules) {
+            this.rules = rules;
+        }
+
+        @Override
+        protected WeakReference<ConvertersFrom> computeValue(Class<?> source) {
+            ConvertersFrom converters = new ConvertersFrom(this, source);
+            held.add(converters);
+            return new WeakReference<>(converters);
+        }
+
+        private Converter find(Class source, Class target) {
+            return get(source).get().find(target);
+        }
+    }
+
+    /**
+     * The converters from one source class, by parameter type. It refers to the source class weakly, and
+     * each converter refers to its parameter type weakly, so that a shared coercion never keeps the
+     * classes it has converted between from being unloaded.
+     */
+    private static final class ConvertersFrom extends ClassValue<WeakReference<Converter>> {
+        private final Converters converters;
+        private final WeakReference<Class> source;
+        private final Queue<Converter> held = new ConcurrentLinkedQueue<>();
+
+        private ConvertersFrom(Converters converters, Class source) {
+            this.converters = converters;
+            this.source = new WeakReference<>(source);
+        }
+
+        @Override
+        protected WeakReference<Converter> computeValue(Class<?> target) {
+            Converter converter = compile(converters, source.get(), target);
+            held.add(converter);
+            return new WeakReference<>(converter);
+        }
+
+        private Converter find(Class target) {
+            return get(target).get();
+        }
+    }
+
+    private static final class Rule {
+        private final Class source;
+        private final Class target;
+        private final int cost;
+        private final Function<Object, Object> function;
+
+        private Rule(Class source, Class target, int cost, Function<Object, Object> function) {
+            this.source = source;
+            this.target = target;
+            this.cost = cost;
+            this.function = function;
+        }
+    }
+
+    /**
+     * A builder for TypeCoercion.
+     */
+    public static class Builder {
+        private final List<Rule> rules = new ArrayList<>();
+
+        private Builder() {
+            register(String.class, Integer.class, PARSE_COST, Integer::valueOf);
+            register(String.class, Long.class, PARSE_COST, Long::valueOf);
+            register(String.class, Short.class, PARSE_COST, Short::valueOf);
+            register(String.class, Byte.class, PARSE_COST, Byte::valueOf);
+            register(String.class, Double.class, PARSE_COST, Double::valueOf);
+            register(String.class, Float.class, PARSE_COST, Float::valueOf);
+            register(String.class, BigInteger.class, PARSE_COST, BigInteger::new);
+            register(String.class, BigDecimal.class, PARSE_COST, BigDecimal::new);
+            register(String.class, Boolean.class, PARSE_COST, TypeCoercion::parseBoolean);
+            register(String.class, Character.class, PARSE_COST, TypeCoercion::parseCharacter);
+            for (int i = 0; i < NUMERIC_ORDER.length; i++) {
+                for (int j = i + 1; j < NUMERIC_ORDER.length; j++) {
+                    widen(NUMERIC_ORDER[i], NUMERIC_ORDER[j], (j - i) * WIDENING_COST);
+                }
+            }
+            widen(Character.class, Integer.class, WIDENING_COST);
+            widen(Character.class, Long.class, 2 * WIDENING_COST);
+            widen(Character.class, Float.class, 3 * WIDENING_COST);
+            widen(Character.class, Double.class, 4 * WIDENING_COST);
+        }
+
+        private void widen(Class source, Class target, int cost) {
+            Function<Number, Object> function;
+            if(target == Short.class){
+                function = Number::shortValue;
+            } else if(target == Integer.class){
+                function = Number::intValue;
+            } else if(target == Long.class){
+                function = Number::longValue;
+            } else if(target == Float.class){
+                function = Number::floatValue;
+            } else {
+                function = Number::doubleValue;
+            }
+            if(source == Character.class){
+                rules.add(new Rule(source, target, cost, v -> function.apply((int) (Character) v)));
+            } else {
+                rules.add(new Rule(source, target, cost, v -> function.apply((Number) v)));
+            }
+        }
+
+        /**
+         * Registers a conversion. Values of the source class, or a subclass, can then be passed to
+         * parameters of the target type, or a supertype, either directly or after one other conversion.
+         * @param source The class of the values to convert.
+         * @param target The type the values are converted to.
+         * @param cost The cost added to the match distance of methods using the conversion, &gt; 0.
+         * @param function The conversion, throwing IllegalArgumentException for values it can't convert.
+         * @param <S> The source type.
+         * @param <T> The target type.
+         * @return this
+         */
+        @SuppressWarnings("unchecked")
+        public @Nonnull <S, T> Builder register(@Nonnull Class<S> source, @Nonnull Class<T> target, int cost,
+                                                @Nonnull Function<? super S, ? extends T> function) {
+            if(cost < 1){
+                throw new IllegalArgumentException("Cost must be positive: " + cost);
+            }
+            rules.add(new Rule(source, box(target), cost, (Function<Object, Object>) function));
+            return this;
+        }
+
+        /**
+         * Creates the coercion.
+         * @return A new TypeCoercion.
+         */
+        public @Nonnull TypeCoercion build() {
+            return new TypeCoercion(this);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Finds the names of the classes to register in bulk, either in a package on the class path or
+ * listed in a resource.
+ */
+public class ClassScanner {
+
+    private ClassScanner() {
+    }
+
+    /**
+     * Lists the classes in a package and its subpackages, from every directory and jar on the class path
+     * of a class loader. Anonymous and local classes, package-info and module-info are left out.
+     * @param packageName The package, such as "com.example.handlers".
+     * @param loader The class loader to search.
+     * @return The binary class names, without duplicates.
+     * @throws IOException if the class path can't be read.
+     */
+    public static @Nonnull List<String> scanPackage(@Nonnull String packageName, @Nonnull ClassLoader loader) throws IOException {
+        String path = packageName.replace('.', '/');
+        Set<String> names = new LinkedHashSet<>();
+        Enumeration<URL> roots = loader.getResources(path);
+        while (roots.hasMoreElements()) {
+            URL root = roots.nextElement();
+            if("file".equals(root.getProtocol())){
+                scanDirectory(root, packageName, names);
+            } else {
+                URLConnection connection = root.openConnection();
+                if(connection instanceof JarURLConnection){
+                    connection.setUseCaches(false);
+                    try(JarFile jar = ((JarURLConnection) connection).getJarFile()){
+                        scanJar(jar, path + '/', names);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    private static void scanDirectory(URL root, String packageName, Set<String> names) throws IOException {
+        Path directory;
+        try {
+            directory = Paths.get(root.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Unable to read "+root, e);
+        }
+        try(Stream<Path> files = Files.walk(directory)){
+            files.filter(Files::isRegularFile)
+                    .map(file -> directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                    .map(file -> packageName + '/' + file)
+                    .forEach(file -> addClass(file, names));
+        }
+    }
+
+    private static void scanJar(JarFile jar, String prefix, Set<String> names) {
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if(!entry.isDirectory() && entry.getName().startsWith(prefix)){
+                addClass(entry.getName(), names);
+            }
+        }
+    }
+
+    private static void addClass(String file, Set<String> names) {
+        if(!file.endsWith(".class")){
+            return;
+        }
+        String name = file.substring(0, file.length() - ".class".length()).replace('/', '.');
+        String simpleName = name.substring(name.lastIndexOf('.') + 1);
+        if(simpleName.equals("package-info") || simpleName.equals("module-info") || isAnonymousOrLocal(simpleName)){
+            return;
+        }
+        names.add(name);
+    }
+
+    /**
+     * Anonymous and local classes have a number directly after a '$' in their binary name.
+     */
+    private static boolean isAnonymousOrLocal(String simpleName) {
+        for (int i = simpleName.indexOf('$'); i >= 0 && i < simpleName.length() - 1; i = simpleName.indexOf('$', i + 1)) {
+            if(Character.isDigit(simpleName.charAt(i + 1))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the class names listed in a resource, one per line. Blank lines and lines starting with '#'
+     * are ignored, as are leading and trailing spaces.
+     * @param resource The resource name, such as "META-INF/invoker/handlers".
+     * @param loader The class loader to read the resource from.
+     * @return The class names, in order, without duplicates.
+     * @throws IOException if the resource doesn't exist or can't be read.
+     */
+    public static @Nonnull List<String> readTypeList(@Nonnull String resource, @Nonnull ClassLoader loader) throws IOException {
+        InputStream in = loader.getResourceAsStream(resource);
+        if(in == null){
+            throw new IOException("No resource "+resource);
+        }
+        Set<String> names = new LinkedHashSet<>();
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))){
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if(!line.isEmpty() && !line.startsWith("#")){
+                    names.add(line);
+                }
+            }
+        }
+        return new ArrayList<>(names);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The default executor for asynchronous invocations: a virtual thread per task when the JVM has
+ * virtual threads, and the common ForkJoinPool otherwise. Virtual threads are looked up reflectively
+ * because the runtime is compiled for Java 8.
+ */
+public final class DefaultExecutor {
+
+    private static final Executor INSTANCE = create();
+
+    private DefaultExecutor() {
+    }
+
+    /**
+     * The shared default executor.
+     * @return The executor.
+     */
+    public static @Nonnull Executor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Whether the default executor runs each task on a new virtual thread.
+     * @return true on JVMs with virtual threads.
+     */
+    public static boolean isVirtual() {
+        return !(INSTANCE instanceof ForkJoinPool);
+    }
+
+    private static Executor create() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Before Java 21, or Java 19 and 20 without preview features enabled.
+            return ForkJoinPool.commonPool();
+        }
+    }
+}
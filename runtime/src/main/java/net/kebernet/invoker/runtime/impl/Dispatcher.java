@@ -0,0 +1,147 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.InvokerException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A per-type dispatch table that calls the invokable methods of a class by their method ID, taking
+ * the arguments straight from an argument slot array in declared parameter order.
+ * <p>
+ * Methods using the REFLECTION engine are called through the table. Each is called with
+ * Method.invoke until it has been called {@value #INFLATION_THRESHOLD} times, and is then bound to a
+ * pre-adapted MethodHandle, so the steady state makes no reflective calls while methods that are
+ * rarely used never pay for binding one. Methods that cannot be adapted stay reflective.
+ * {@link #dispatch(int, Object, Object[])} takes the same path as
+ * {@link InvokableMethod#invoke(Object, Object[])}, including the coercion, so the results are the same.
+ * </p>
+ */
+public class Dispatcher {
+
+    /**
+     * The number of reflective calls of a method after which it is bound to a handle.
+     */
+    public static final int INFLATION_THRESHOLD = 16;
+    /**
+     * The call count of a method that could not be bound, which never reaches the threshold again.
+     */
+    private static final int UNBINDABLE = Integer.MIN_VALUE;
+
+    private final Class type;
+    private final AtomicReferenceArray<InvokableMethod> methods;
+    /**
+     * The handle of each method, by ID, once it is bound. Racing threads bind equivalent handles.
+     */
+    private final MethodHandle[] handles;
+    /**
+     * The reflective calls of each method, by ID. Racing increments may be lost, which only delays binding.
+     */
+    private final int[] calls;
+
+    Dispatcher(@Nonnull Class type, int size) {
+        this.type = type;
+        this.methods = new AtomicReferenceArray<>(size);
+        this.handles = new MethodHandle[size];
+        this.calls = new int[size];
+    }
+
+    /**
+     * Adds a method to the table.
+     * @param method The method.
+     * @param id The ID of the method, its position among the invokable methods of the type.
+     */
+    void add(@Nonnull InvokableMethod method, int id) {
+        method.setDispatch(this, id);
+        methods.set(id, method);
+    }
+
+    /**
+     * The type this dispatcher calls methods on.
+     * @return The type.
+     */
+    public @Nonnull Class getType() {
+        return type;
+    }
+
+    /**
+     * The number of methods in the table.
+     * @return The number of method IDs.
+     */
+    public int size() {
+        return handles.length;
+    }
+
+    /**
+     * Whether a method has been bound to a handle.
+     * @param methodId The ID of the method from {@link InvokableMethod#getId()}
+     * @return true once the method is called without reflection.
+     */
+    public boolean isBound(int methodId) {
+        return handles[methodId] != null;
+    }
+
+    /**
+     * Calls a method by ID.
+     * @param methodId The ID of the method from {@link InvokableMethod#getId()}
+     * @param target The target object to invoke the method on.
+     * @param arguments the arguments to pass to the method, one per parameter.
+     * @param <T> the return type of the method.
+     * @return The return value of the method or Void.class
+     * @throws InvokerException thrown if something goes wrong.
+     */
+    public @Nullable <T> T dispatch(int methodId, @Nonnull Object target, @Nonnull Object[] arguments) throws InvokerException {
+        InvokableMethod method = methods.get(methodId);
+        if(method == null){
+            throw new IllegalArgumentException("No method with ID " + methodId + " has been introspected on " + type.getName());
+        }
+        return method.invoke(target, arguments);
+    }
+
+    /**
+     * Calls a reflective method, through its handle once it has been called often enough.
+     */
+    Object call(int methodId, Method method, Object target, Object[] arguments) throws IllegalAccessException, InvocationTargetException {
+        MethodHandle handle = handles[methodId];
+        if(handle == null){
+            if(++calls[methodId] < INFLATION_THRESHOLD || (handle = bind(methodId, method)) == null){
+                return method.invoke(target, arguments);
+            }
+        }
+        try {
+            return (Object) handle.invokeExact(target, arguments);
+        } catch (Throwable t) {
+            // Match the reflective contract so callers see the same cause chain either way.
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private MethodHandle bind(int methodId, Method method) {
+        MethodHandle handle = InvokableMethod.bindHandle(method);
+        if(handle == null){
+            calls[methodId] = UNBINDABLE;
+        } else {
+            handles[methodId] = handle;
+        }
+        return handle;
+    }
+}
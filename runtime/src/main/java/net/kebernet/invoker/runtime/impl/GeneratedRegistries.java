@@ -0,0 +1,77 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.spi.InvokerRegistry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+
+/**
+ * Locates the {@link InvokerRegistry} generated for a type through {@link ServiceLoader}.
+ * <p>
+ * The registries visible to a class loader are scanned once. Only the class names are kept, so the
+ * index never holds a reference to a class that would keep its class loader from being unloaded, and a
+ * registry is instantiated again through its class name when its type is introspected.
+ * </p>
+ */
+public class GeneratedRegistries {
+
+    private final Map<ClassLoader, Map<String, String>> registryNames = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Finds the generated registry for a type.
+     * @param type The type to look up.
+     * @return The registry, or null if no registry was generated for exactly this type.
+     */
+    public @Nullable InvokerRegistry find(@Nonnull Class type) {
+        ClassLoader loader = type.getClassLoader();
+        if(loader == null){
+            return null;
+        }
+        String registryName = registryNames.computeIfAbsent(loader, GeneratedRegistries::scan).get(type.getName());
+        if(registryName == null){
+            return null;
+        }
+        try {
+            InvokerRegistry registry = (InvokerRegistry) Class.forName(registryName, true, loader).newInstance();
+            return registry.getType() == type ? registry : null;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Unable to create registry "+registryName+" for "+type.getName(), e);
+        }
+    }
+
+    private static Map<String, String> scan(ClassLoader loader) {
+        HashMap<String, String> names = new HashMap<>();
+        Iterator<InvokerRegistry> registries = ServiceLoader.load(InvokerRegistry.class, loader).iterator();
+        while (registries.hasNext()) {
+            try {
+                InvokerRegistry registry = registries.next();
+                names.put(registry.getType().getName(), registry.getClass().getName());
+            } catch (ServiceConfigurationError e) {
+                // A stale or broken entry only means that type falls back to reflection.
+            }
+        }
+        return names;
+    }
+}
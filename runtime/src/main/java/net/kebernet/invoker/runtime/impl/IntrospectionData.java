@@ -17,19 +17,29 @@ package net.kebernet.invoker.runtime.impl;
 
 import net.kebernet.invoker.annotation.DefaultInvokable;
 import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.runtime.InvokerOptions;
 import net.kebernet.invoker.runtime.ParameterValue;
+import net.kebernet.invoker.runtime.spi.InvokerListener;
+import net.kebernet.invoker.runtime.spi.InvokerRegistry;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  *  Data for a particular type derived from reflection.
@@ -39,6 +49,24 @@ public class IntrospectionData {
     private final Class clazz;
     private final String name;
     private final LinkedHashSet<InvokableMethod> methods = new LinkedHashSet<>();
+    /**
+     * The compiled overloads for each invocation name. With lazy introspection this is concurrent and
+     * only holds the names resolved so far.
+     */
+    private final Map<String, Overloads> methodsByName;
+    /**
+     * With lazy introspection, the invokable methods in declaration order and the indexes of the
+     * overloads of each invocation name, or null.
+     */
+    private final Method[] declared;
+    private final HashMap<String, int[]> declaredByName;
+    private final InvokerOptions options;
+    /**
+     * Resolved methods by invocation name and parameter shape, with Optional.empty() recording no match,
+     * created on the first resolution so that types that are registered but never invoked don't pay for it.
+     */
+    private volatile ShapeCache<Optional<InvokableMethod>> resolutions;
+    private final Dispatcher dispatcher;
 
     /**
      * Constructor
@@ -49,11 +77,55 @@ public class IntrospectionData {
     public IntrospectionData(@Nonnull Class clazz,
                              @Nonnull Optional<Function<Method, String>> findInvocationName,
                              @Nonnull Optional<Function<Parameter, String>> findParameterName) {
+        this(clazz, InvokerOptions.builder()
+                .findInvocationName(findInvocationName.orElse(null))
+                .findParameterName(findParameterName.orElse(null))
+                .build());
+    }
+
+    /**
+     * Constructor
+     * @param clazz the class we are creating introspection data for.
+     * @param options The options containing the naming strategies and invocation engine to use.
+     * @throws IllegalArgumentException if the class has no invokable methods.
+     */
+    public IntrospectionData(@Nonnull Class clazz, @Nonnull InvokerOptions options) {
         this.clazz = clazz;
         this.name = clazz.getCanonicalName();
+        this.options = options;
+        if(options.isLazyIntrospection()){
+            this.methodsByName = new ConcurrentHashMap<>();
+            this.declared = distinct(invokableMethods(clazz, options));
+            this.declaredByName = indexNames(declared, options);
+            this.dispatcher = new Dispatcher(clazz, declared.length);
+            return;
+        }
+        this.methodsByName = new HashMap<>();
+        this.declared = null;
+        this.declaredByName = null;
+        invokableMethods(clazz, options)
+                .map(m -> new InvokableMethod(m, options))
+                .forEach(methods::add);
+        this.dispatcher = new Dispatcher(clazz, methods.size());
+        index();
+    }
+
+    /**
+     * Checks whether a type has any methods that would be invokable with the given options, without
+     * introspecting their parameters.
+     * @param clazz The type to check.
+     * @param options The options containing the naming strategies to use.
+     * @return true if introspecting the type would find at least one method.
+     */
+    public static boolean hasInvokableMethods(@Nonnull Class clazz, @Nonnull InvokerOptions options) {
+        return invokableMethods(clazz, options).findAny().isPresent();
+    }
+
+    private static Stream<Method> invokableMethods(Class clazz, InvokerOptions options) {
+        Optional<Function<Method, String>> findInvocationName = options.getFindInvocationName();
         DefaultInvokable defaultInvokable = (DefaultInvokable) clazz.getAnnotation(DefaultInvokable.class);
         final boolean isDefaultInvokable = findInvocationName.isPresent() || defaultInvokable != null && defaultInvokable.value();
-        Arrays.stream(clazz.getMethods())
+        return Arrays.stream(clazz.getMethods())
                 .filter( m -> (m.getModifiers() & Modifier.PUBLIC) > 0 &&
                         !m.getDeclaringClass().getPackage().getName().startsWith("java.") &&
                         !m.getDeclaringClass().getPackage().getName().startsWith("javax.") &&
@@ -61,12 +133,93 @@ public class IntrospectionData {
                             isInvokable(isDefaultInvokable, m) ||
                             (findInvocationName.isPresent() && findInvocationName.get().apply(m) != null)
                         )
-                )
-                .map(m -> new InvokableMethod(m, findInvocationName, findParameterName))
-                .forEach(methods::add);
+                );
+    }
+
+    /**
+     * Creates the introspection data for a type from a generated registry, without reflecting on its
+     * methods or parameters.
+     * @param registry The registry describing the type.
+     * @param options The options to use.
+     */
+    public IntrospectionData(@Nonnull InvokerRegistry registry, @Nonnull InvokerOptions options) {
+        this.clazz = registry.getType();
+        this.name = clazz.getCanonicalName();
+        this.options = options;
+        this.methodsByName = new HashMap<>();
+        this.declared = null;
+        this.declaredByName = null;
+        for (int i = 0; i < registry.getMethods().size(); i++) {
+            methods.add(new InvokableMethod(registry, i, options));
+        }
+        this.dispatcher = new Dispatcher(clazz, methods.size());
+        index();
+    }
+
+    /**
+     * Removes the methods that an eagerly built IntrospectionData would consider equal, keeping the first.
+     */
+    private static Method[] distinct(Stream<Method> found) {
+        Map<List<Object>, Method> unique = new LinkedHashMap<>();
+        found.forEach(m -> unique.putIfAbsent(Arrays.asList(m.getDeclaringClass(), m.getName(),
+                Arrays.asList(m.getParameterTypes())), m));
+        return unique.values().toArray(new Method[unique.size()]);
+    }
+
+    private HashMap<String, int[]> indexNames(Method[] found, InvokerOptions options) {
+        if(found.length == 0){
+            throw new IllegalArgumentException("Unable to find any invokable method on "+clazz.getCanonicalName());
+        }
+        HashMap<String, List<Integer>> overloads = new HashMap<>();
+        for (int i = 0; i < found.length; i++) {
+            overloads.computeIfAbsent(InvokableMethod.invocationName(found[i], options), n -> new ArrayList<>()).add(i);
+        }
+        HashMap<String, int[]> index = new HashMap<>();
+        overloads.forEach((n, list) -> index.put(n, list.stream().mapToInt(Integer::intValue).toArray()));
+        return index;
+    }
+
+    /**
+     * The overloads of an invocation name, introspecting them on first use when introspection is lazy.
+     * Concurrent first uses of a name build its methods once.
+     */
+    private @Nullable Overloads candidates(String name) {
+        if(name == null){
+            return null;
+        }
+        Overloads candidates = methodsByName.get(name);
+        if(candidates == null && declaredByName != null){
+            int[] indexes = declaredByName.get(name);
+            if(indexes != null){
+                candidates = methodsByName.computeIfAbsent(name, n -> materialize(indexes));
+            }
+        }
+        return candidates;
+    }
+
+    private Overloads materialize(int[] indexes) {
+        InvokableMethod[] overloads = new InvokableMethod[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            overloads[i] = new InvokableMethod(declared[indexes[i]], options);
+            dispatcher.add(overloads[i], indexes[i]);
+        }
+        return new Overloads(overloads, options);
+    }
+
+    /**
+     * Assigns method IDs and indexes the methods by invocation name.
+     */
+    private void index() {
         if(methods.isEmpty()){
-            throw new RuntimeException("Unable to find any invokable method on "+clazz.getCanonicalName());
+            throw new IllegalArgumentException("Unable to find any invokable method on "+clazz.getCanonicalName());
         }
+        HashMap<String, List<InvokableMethod>> overloads = new HashMap<>();
+        int id = 0;
+        for(InvokableMethod method : methods){
+            dispatcher.add(method, id++);
+            overloads.computeIfAbsent(method.getName(), n -> new ArrayList<>()).add(method);
+        }
+        overloads.forEach((n, list) -> methodsByName.put(n, new Overloads(list.toArray(new InvokableMethod[list.size()]), options)));
     }
 
     /**
@@ -85,15 +238,45 @@ public class IntrospectionData {
         return name;
     }
 
-    /** A set of InvokableMethods contained in this class.
+    /** A set of InvokableMethods contained in this class. With lazy introspection this introspects
+     * every method that has not been used yet.
      *
      * @return Read-only set of methods.
      */
     public @Nonnull Set<InvokableMethod> getMethods() {
-        return Collections.unmodifiableSet(methods);
+        if(declared == null){
+            return Collections.unmodifiableSet(methods);
+        }
+        InvokableMethod[] all = new InvokableMethod[declared.length];
+        for(String name : declaredByName.keySet()){
+            for(InvokableMethod method : candidates(name).getMethods()){
+                all[method.getId()] = method;
+            }
+        }
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(all)));
     }
 
-    private boolean isInvokable(boolean isDefaultInvokable, @Nonnull Method m) {
+    /**
+     * The number of invokable methods, without introspecting them when introspection is lazy.
+     * @return The method count.
+     */
+    public int getMethodCount() {
+        return declared == null ? methods.size() : declared.length;
+    }
+
+    /**
+     * The dispatch table for this type, through which its reflective methods are called. With lazy
+     * introspection this introspects every method that has not been used yet, so each has an entry.
+     * @return The Dispatcher for this type.
+     */
+    public @Nonnull Dispatcher getDispatcher() {
+        if(declared != null){
+            getMethods();
+        }
+        return dispatcher;
+    }
+
+    private static boolean isInvokable(boolean isDefaultInvokable, @Nonnull Method m) {
         Invokable invokable = m.getAnnotation(Invokable.class);
         return invokable != null ? invokable.value() : isDefaultInvokable;
     }
@@ -105,9 +288,99 @@ public class IntrospectionData {
      * @return An optional of an InvokableMethod.
      */
     public @Nonnull Optional<InvokableMethod> bestMatch(String name, List<ParameterValue> parameters){
-        return this.methods.stream()
-                .sorted(new InvokableMethod.Comparator(name, parameters))
-                .findFirst()
-                .filter(im -> im.matchValue(name, parameters) >= 0);
+        return bestMatch(name, ParameterShape.of(parameters));
+    }
+
+    /** Finds the best match for the given method name and the shape of the parameter values.
+     *
+     * @param name The invocation name of the method.
+     * @param shape The names and value types of the parameters you want to pass in.
+     * @return An optional of an InvokableMethod.
+     */
+    public @Nonnull Optional<InvokableMethod> bestMatch(String name, ParameterShape shape){
+        Overloads candidates = candidates(name);
+        if(candidates == null){
+            return Optional.empty();
+        }
+        ShapeCache<Optional<InvokableMethod>> cache = getResolutionCache();
+        if(cache == null){
+            return Optional.ofNullable(candidates.resolve(name, shape));
+        }
+        long fingerprint = ShapeCache.fingerprint(name, shape);
+        Optional<InvokableMethod> resolved = cache.get(fingerprint, name, shape);
+        if(resolved == null){
+            resolved = cache.put(fingerprint, name, shape, Optional.ofNullable(candidates.resolve(name, shape)));
+        }
+        return resolved;
+    }
+
+    /** Finds the best match for the given method name and the shape of the parameter values, reporting
+     * the time taken and whether the resolution cache was hit to a listener.
+     *
+     * @param name The invocation name of the method.
+     * @param shape The names and value types of the parameters you want to pass in.
+     * @param listener The listener to report the resolution to.
+     * @return An optional of an InvokableMethod.
+     */
+    public @Nonnull Optional<InvokableMethod> bestMatch(String name, ParameterShape shape, @Nonnull InvokerListener listener){
+        listener.resolving(clazz, name);
+        long start = System.nanoTime();
+        Overloads candidates = candidates(name);
+        Optional<InvokableMethod> resolved;
+        boolean cached = false;
+        ShapeCache<Optional<InvokableMethod>> cache = candidates == null ? null : getResolutionCache();
+        if(candidates == null){
+            resolved = Optional.empty();
+        } else if(cache == null){
+            resolved = Optional.ofNullable(candidates.resolve(name, shape));
+        } else {
+            long fingerprint = ShapeCache.fingerprint(name, shape);
+            resolved = cache.get(fingerprint, name, shape);
+            cached = resolved != null;
+            if(!cached){
+                resolved = cache.put(fingerprint, name, shape, Optional.ofNullable(candidates.resolve(name, shape)));
+            }
+        }
+        listener.resolved(clazz, name, candidates == null ? 0 : candidates.getMethods().length, cached, resolved.isPresent(), System.nanoTime() - start);
+        return resolved;
+    }
+
+    /**
+     * The cache of resolved methods by invocation name and parameter shape, for inspecting hit, miss and
+     * eviction counts.
+     * @return The cache, or null if resolutions are not cached.
+     */
+    public @Nullable ShapeCache<Optional<InvokableMethod>> getResolutionCache() {
+        ShapeCache<Optional<InvokableMethod>> result = this.resolutions;
+        if(result == null && options.getResolutionCacheSize() != 0){
+            result = new ShapeCache<>(options.getResolutionCacheSize());
+            this.resolutions = result;
+        }
+        return result;
+    }
+
+    /**
+     * Empties the resolution cache and the match memoizations of every introspected method.
+     */
+    public void clearCaches() {
+        ShapeCache<Optional<InvokableMethod>> cache = this.resolutions;
+        if(cache != null){
+            cache.clear();
+        }
+        methodsByName.values().forEach(overloads -> {
+            for(InvokableMethod method : overloads.getMethods()){
+                method.clearMemoizations();
+            }
+        });
+    }
+
+    /**
+     * The overloads of an invocation name.
+     * @param name The invocation name.
+     * @return A read-only list of the methods with the name, in declaration order.
+     */
+    public @Nonnull List<InvokableMethod> getMethods(String name) {
+        Overloads candidates = candidates(name);
+        return candidates == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(candidates.getMethods()));
     }
 }
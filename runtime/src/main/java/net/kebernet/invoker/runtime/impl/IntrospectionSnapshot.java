@@ -0,0 +1,338 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.spi.InvokerRegistry;
+import net.kebernet.invoker.runtime.spi.MethodDescriptor;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes a binary snapshot of resolved introspection data, so a later JVM can register
+ * types without reflecting on their methods and parameters.
+ * <p>
+ * The file holds a string table followed by one entry per type: the class name, a checksum of the
+ * bytecode of the class and its supertypes, and a descriptor for each invokable method with its
+ * invocation name, Java name, return type, and the type, name and required flag of each parameter
+ * in slot order. An entry is only valid for a class whose checksum still matches.
+ * </p>
+ */
+public class IntrospectionSnapshot {
+
+    /**
+     * The checksum of a class whose bytecode could not be read.
+     */
+    public static final long UNKNOWN_CHECKSUM = -1;
+
+    private static final int MAGIC = 0x494E564B;
+    private static final int VERSION = 1;
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for(Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class,
+                long.class, float.class, double.class, void.class}){
+            PRIMITIVES.put(type.getName(), type);
+        }
+    }
+
+    private IntrospectionSnapshot() {
+    }
+
+    /**
+     * Computes the checksum of the bytecode of a class, its superclasses and its interfaces. JDK types
+     * are left out, since they can't change without a new JVM.
+     * @param type The class.
+     * @return A CRC32 of the class files, or {@link #UNKNOWN_CHECKSUM} if one of them can't be read.
+     */
+    public static long checksum(@Nonnull Class<?> type) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(type);
+        while (!pending.isEmpty()) {
+            Class<?> next = pending.poll();
+            if(next.getClassLoader() == null || next.getName().startsWith("java.") ||
+                    next.getName().startsWith("javax.") || !hierarchy.add(next)){
+                continue;
+            }
+            if(next.getSuperclass() != null){
+                pending.add(next.getSuperclass());
+            }
+            Collections.addAll(pending, next.getInterfaces());
+        }
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        for(Class<?> next : hierarchy){
+            try(InputStream in = next.getClassLoader().getResourceAsStream(next.getName().replace('.', '/') + ".class")){
+                if(in == null){
+                    return UNKNOWN_CHECKSUM;
+                }
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    crc.update(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                return UNKNOWN_CHECKSUM;
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Writes a snapshot of introspection data. The file is written next to its destination and then
+     * moved into place, so a reader never sees a partial snapshot. Types whose bytecode can't be
+     * checksummed are left out.
+     * @param data The introspection data to save.
+     * @param file The snapshot file to create or replace.
+     * @return The number of types written.
+     * @throws IOException if the file can't be written.
+     */
+    public static int write(@Nonnull Collection<IntrospectionData> data, @Nonnull Path file) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(entries);
+        int count = 0;
+        for(IntrospectionData type : data){
+            long checksum = checksum(type.getType());
+            if(checksum != UNKNOWN_CHECKSUM){
+                writeType(type, checksum, strings, out);
+                count++;
+            }
+        }
+        out.flush();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try(OutputStream stream = Files.newOutputStream(temporary);
+                DataOutputStream header = new DataOutputStream(stream)){
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeInt(strings.size());
+                for(String string : strings.keySet()){
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    header.writeInt(bytes.length);
+                    header.write(bytes);
+                }
+                header.writeInt(count);
+                entries.writeTo(header);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return count;
+    }
+
+    private static void writeType(IntrospectionData type, long checksum, Map<String, Integer> strings, DataOutputStream out) throws IOException {
+        out.writeInt(intern(type.getType().getName(), strings));
+        out.writeLong(checksum);
+        out.writeInt(type.getMethods().size());
+        for(InvokableMethod method : type.getMethods()){
+            Method nativeMethod = method.getNativeMethod();
+            NamedParameter[] parameters = new NamedParameter[method.getParameterCount()];
+            for(NamedParameter parameter : method.getParameters()){
+                parameters[parameter.getSlot()] = parameter;
+            }
+            Class<?>[] types = nativeMethod.getParameterTypes();
+            out.writeInt(intern(method.getName(), strings));
+            out.writeInt(intern(method.getMethodName(), strings));
+            out.writeInt(intern(method.getReturnType().getName(), strings));
+            out.writeInt(parameters.length);
+            for (int i = 0; i < parameters.length; i++) {
+                out.writeInt(intern(types[i].getName(), strings));
+                out.writeInt(intern(parameters[i].getName(), strings));
+                out.writeBoolean(parameters[i].isRequired());
+            }
+        }
+    }
+
+    private static int intern(String string, Map<String, Integer> strings) {
+        return strings.computeIfAbsent(string, s -> strings.size());
+    }
+
+    /**
+     * Reads a snapshot through a memory mapped file.
+     * @param file The snapshot file.
+     * @return The entries, in the order they were written.
+     * @throws IOException if the file can't be read or is not a valid snapshot.
+     */
+    public static @Nonnull List<Entry> read(@Nonnull Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return read(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt introspection snapshot "+file, e);
+        }
+    }
+
+    private static List<Entry> read(ByteBuffer buffer) throws IOException {
+        if(buffer.getInt() != MAGIC){
+            throw new IOException("Not an introspection snapshot");
+        }
+        int version = buffer.getInt();
+        if(version != VERSION){
+            throw new IOException("Unsupported introspection snapshot version "+version);
+        }
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int count = buffer.getInt();
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String className = strings[buffer.getInt()];
+            long checksum = buffer.getLong();
+            MethodEntry[] methods = new MethodEntry[buffer.getInt()];
+            for (int m = 0; m < methods.length; m++) {
+                String invocationName = strings[buffer.getInt()];
+                String methodName = strings[buffer.getInt()];
+                String returnType = strings[buffer.getInt()];
+                int parameterCount = buffer.getInt();
+                String[] parameterTypes = new String[parameterCount];
+                String[] parameterNames = new String[parameterCount];
+                boolean[] required = new boolean[parameterCount];
+                for (int p = 0; p < parameterCount; p++) {
+                    parameterTypes[p] = strings[buffer.getInt()];
+                    parameterNames[p] = strings[buffer.getInt()];
+                    required[p] = buffer.get() != 0;
+                }
+                methods[m] = new MethodEntry(invocationName, methodName, returnType, parameterTypes, parameterNames, required);
+            }
+            entries.add(new Entry(className, checksum, methods));
+        }
+        return entries;
+    }
+
+    private static Class<?> resolve(String name, ClassLoader loader) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        return primitive != null ? primitive : Class.forName(name, false, loader);
+    }
+
+    /**
+     * The snapshot of one type.
+     */
+    public static final class Entry {
+        private final String className;
+        private final long checksum;
+        private final MethodEntry[] methods;
+
+        private Entry(String className, long checksum, MethodEntry[] methods) {
+            this.className = className;
+            this.checksum = checksum;
+            this.methods = methods;
+        }
+
+        /**
+         * The binary name of the type.
+         * @return The class name.
+         */
+        public @Nonnull String getClassName() {
+            return className;
+        }
+
+        /**
+         * The checksum of the type when the snapshot was written.
+         * @return The checksum from {@link IntrospectionSnapshot#checksum(Class)}
+         */
+        public long getChecksum() {
+            return checksum;
+        }
+
+        /**
+         * Whether this entry still describes a loaded class.
+         * @param type The class loaded for {@link #getClassName()}
+         * @return true if the class has the same name and bytecode as when the snapshot was written.
+         */
+        public boolean matches(@Nonnull Class<?> type) {
+            return type.getName().equals(className) && checksum != UNKNOWN_CHECKSUM && checksum == checksum(type);
+        }
+
+        /**
+         * Creates a registry that describes and calls the type from this entry, without reflecting on
+         * its methods or parameters. Each method is looked up by its exact signature on first call.
+         * @param type The class this entry matches.
+         * @return The registry.
+         * @throws ClassNotFoundException if a parameter or return type can't be loaded.
+         */
+        public @Nonnull InvokerRegistry toRegistry(@Nonnull Class<?> type) throws ClassNotFoundException {
+            ClassLoader loader = type.getClassLoader() == null ? ClassLoader.getSystemClassLoader() : type.getClassLoader();
+            List<MethodDescriptor> descriptors = new ArrayList<>(methods.length);
+            for(MethodEntry method : methods){
+                descriptors.add(method.toDescriptor(loader));
+            }
+            return new SnapshotRegistry(type, descriptors);
+        }
+    }
+
+    private static final class MethodEntry {
+        private final String invocationName;
+        private final String methodName;
+        private final String returnType;
+        private final String[] parameterTypes;
+        private final String[] parameterNames;
+        private final boolean[] required;
+
+        private MethodEntry(String invocationName, String methodName, String returnType,
+                            String[] parameterTypes, String[] parameterNames, boolean[] required) {
+            this.invocationName = invocationName;
+            this.methodName = methodName;
+            this.returnType = returnType;
+            this.parameterTypes = parameterTypes;
+            this.parameterNames = parameterNames;
+            this.required = required;
+        }
+
+        private MethodDescriptor toDescriptor(ClassLoader loader) throws ClassNotFoundException {
+            Class<?>[] types = new Class<?>[parameterTypes.length];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = resolve(parameterTypes[i], loader);
+            }
+            return new MethodDescriptor(invocationName, methodName, resolve(returnType, loader), types, parameterNames, required);
+        }
+    }
+}
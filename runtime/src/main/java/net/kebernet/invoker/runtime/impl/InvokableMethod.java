@@ -16,14 +16,24 @@
 package net.kebernet.invoker.runtime.impl;
 
 import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.runtime.ArgumentFrame;
+import net.kebernet.invoker.runtime.InvocationEngine;
 import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.InvokerOptions;
 import net.kebernet.invoker.runtime.ParameterValue;
+import net.kebernet.invoker.runtime.TypeCoercion;
+import net.kebernet.invoker.runtime.spi.InvokerRegistry;
+import net.kebernet.invoker.runtime.spi.MethodDescriptor;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,6 +43,7 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -43,29 +54,327 @@ import java.util.stream.Collectors;
  *  of ParameterValues.
  */
 public class InvokableMethod {
-    private final Method method;
+    /**
+     * The primitive return types of the typed invoke methods, indexed by the *_RESULT constants.
+     */
+    private static final Class[] RESULT_TYPES = {Integer.TYPE, Long.TYPE, Double.TYPE, Boolean.TYPE, Void.TYPE};
+    private static final int INT_RESULT = 0;
+    private static final int LONG_RESULT = 1;
+    private static final int DOUBLE_RESULT = 2;
+    private static final int BOOLEAN_RESULT = 3;
+    private static final int VOID_RESULT = 4;
+    /**
+     * Primitive types in order of widening, where each can be widened to the ones after it except boolean.
+     */
+    private static final List<Class> WIDENING = Arrays.asList(Byte.TYPE, Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE);
+
+    private final Class type;
+    private final String methodName;
+    private final Class[] parameterTypes;
+    private final Class returnType;
+    /**
+     * Whether the method is void, decided once so calls don't compare return types.
+     */
+    private final boolean returnsVoid;
+    /**
+     * The reflected method. This is resolved on first use for methods created from a registry.
+     */
+    private volatile Method method;
     private final String name;
     private final LinkedHashSet<NamedParameter> parameters = new LinkedHashSet<>();
     private final int requiredParameterCount;
     /**
-     * A map of Memoizations to Integer match scores to increase performance of matchValues()
+     * Parameter names to their index in the argument array.
+     */
+    private final SlotTable slots;
+    /**
+     * The slots of the required parameters as bits, when the method has at most 64 parameters with
+     * distinct names and is matched with masks.
+     */
+    private final long requiredMask;
+    private final boolean maskable;
+    /**
+     * A handle adapted to (Object target, Object[] arguments)Object, or null to call the method reflectively.
+     */
+    private final MethodHandle handle;
+    /**
+     * The same handle with the declared return type of the method.
+     */
+    private final MethodHandle nativeHandle;
+    /**
+     * A handle of (Object target, ArgumentFrame frame, int[] slots)Object that reads primitive parameters
+     * from the frame without boxing, or null when the method has no primitive parameters or is not called
+     * through a handle.
+     */
+    private final MethodHandle frameHandle;
+    /**
+     * The same frame handle with the declared return type of the method.
+     */
+    private final MethodHandle nativeFrameHandle;
+    /**
+     * The native handles adapted to each of the RESULT_TYPES, created on first use. Frame handles follow
+     * the array handles.
+     */
+    private final MethodHandle[] typedHandles = new MethodHandle[2 * RESULT_TYPES.length];
+    /**
+     * A generated registry used to call the method directly, or null.
+     */
+    private final InvokerRegistry registry;
+    private final int registryIndex;
+    /**
+     * The conversions for values that can't be passed as they are, or null if values must match.
      */
-    private final HashMap<Memoization, Integer> memoizations = new HashMap<>();
+    private final TypeCoercion coercion;
+    /**
+     * The declared type of each parameter, by slot, with primitives boxed.
+     */
+    private final Class[] slotTypes;
+    /**
+     * The ID of this method within the IntrospectionData that owns it, and the dispatch table of the type
+     * that reflective calls go through, or null.
+     */
+    private int id = -1;
+    private Dispatcher dispatcher;
+    /**
+     * A bounded cache of parameter shapes to Integer match scores to increase performance of matchValues(),
+     * created on the first match so that methods that are never matched by shape don't pay for it.
+     */
+    private volatile ShapeCache<Integer> memoizations;
 
     public InvokableMethod(@Nonnull Method method, @Nonnull Optional<Function<Method, String>> findInvocationName, @Nonnull Optional<Function<Parameter, String>> findParameterName) {
+        this(method, InvokerOptions.builder()
+                .findInvocationName(findInvocationName.orElse(null))
+                .findParameterName(findParameterName.orElse(null))
+                .build());
+    }
+
+    /**
+     * Constructor
+     * @param method The method to wrap.
+     * @param options The options containing the naming strategies and invocation engine to use.
+     */
+    public InvokableMethod(@Nonnull Method method, @Nonnull InvokerOptions options) {
+        Optional<Function<Parameter, String>> findParameterName = options.getFindParameterName();
+        this.type = method.getDeclaringClass();
+        this.methodName = method.getName();
+        this.parameterTypes = method.getParameterTypes();
+        this.returnType = method.getReturnType();
+        this.returnsVoid = returnType == Void.TYPE;
         this.method = method;
-        this.name = findInvocationName.orElse((m)->{
-            Invokable invokable = m.getAnnotation(Invokable.class);
-            if(invokable != null && !"".equals(invokable.invocationName())){
-                return invokable.invocationName();
-            } else {
-                return m.getName();
-            }
-        }).apply(method);
-        Arrays.stream(method.getParameters())
-                .map(p -> new NamedParameter(p, findParameterName))
-                .forEach(this.parameters::add);
+        this.name = invocationName(method, options);
+        Parameter[] reflected = method.getParameters();
+        for (int i = 0; i < reflected.length; i++) {
+            this.parameters.add(new NamedParameter(reflected[i], i, findParameterName));
+        }
         this.requiredParameterCount = (int) parameters.stream().filter(NamedParameter::isRequired).count();
+        this.slots = createSlotTable(parameters);
+        this.slotTypes = createSlotTypes(parameters);
+        this.maskable = isMaskable(parameters);
+        this.requiredMask = createRequiredMask(parameters);
+        this.nativeHandle = options.getInvocationEngine() == InvocationEngine.REFLECTION ? null : bindNativeHandle(method);
+        this.handle = nativeHandle == null ? null : returningObject(nativeHandle);
+        this.registry = null;
+        this.registryIndex = -1;
+        this.coercion = options.getCoercion().orElse(null);
+        this.nativeFrameHandle = handle == null || coercion != null ? null : bindFrameHandle(method);
+        this.frameHandle = nativeFrameHandle == null ? null : returningObject(nativeFrameHandle);
+    }
+
+    /**
+     * Finds the invocation name of a method without introspecting its parameters.
+     * @param method The method.
+     * @param options The options containing the naming strategy to use.
+     * @return The name from the strategy, or else from the Invokable annotation, or else the Java name.
+     */
+    static @Nonnull String invocationName(@Nonnull Method method, @Nonnull InvokerOptions options) {
+        if(options.getFindInvocationName().isPresent()){
+            return options.getFindInvocationName().get().apply(method);
+        }
+        Invokable invokable = method.getAnnotation(Invokable.class);
+        if(invokable != null && !"".equals(invokable.invocationName())){
+            return invokable.invocationName();
+        } else {
+            return method.getName();
+        }
+    }
+
+    /**
+     * Creates a method from a generated registry without reflecting on the method or its parameters.
+     * @param registry The registry describing the type.
+     * @param registryIndex The index of the method in the registry.
+     */
+    public InvokableMethod(@Nonnull InvokerRegistry registry, int registryIndex) {
+        this(registry, registryIndex, InvokerOptions.defaults());
+    }
+
+    /**
+     * Creates a method from a generated registry without reflecting on the method or its parameters.
+     * @param registry The registry describing the type.
+     * @param registryIndex The index of the method in the registry.
+     * @param options The options containing the coercion to use.
+     */
+    public InvokableMethod(@Nonnull InvokerRegistry registry, int registryIndex, @Nonnull InvokerOptions options) {
+        MethodDescriptor descriptor = registry.getMethods().get(registryIndex);
+        this.type = registry.getType();
+        this.methodName = descriptor.getMethodName();
+        this.parameterTypes = descriptor.getParameterTypes();
+        this.returnType = descriptor.getReturnType();
+        this.returnsVoid = returnType == Void.TYPE;
+        this.name = descriptor.getInvocationName();
+        for (int i = 0; i < descriptor.getParameterCount(); i++) {
+            this.parameters.add(new NamedParameter(descriptor.getParameterName(i), i, descriptor.getParameterType(i), descriptor.isRequired(i)));
+        }
+        this.requiredParameterCount = (int) parameters.stream().filter(NamedParameter::isRequired).count();
+        this.slots = createSlotTable(parameters);
+        this.slotTypes = createSlotTypes(parameters);
+        this.maskable = isMaskable(parameters);
+        this.requiredMask = createRequiredMask(parameters);
+        this.handle = null;
+        this.nativeHandle = null;
+        this.frameHandle = null;
+        this.nativeFrameHandle = null;
+        this.registry = registry;
+        this.registryIndex = registryIndex;
+        this.coercion = options.getCoercion().orElse(null);
+    }
+
+    private static SlotTable createSlotTable(Set<NamedParameter> parameters) {
+        return new SlotTable(parameters.stream().map(NamedParameter::getName).toArray(String[]::new));
+    }
+
+    private static boolean isMaskable(Set<NamedParameter> parameters) {
+        return parameters.size() <= Long.SIZE &&
+                parameters.stream().map(NamedParameter::getName).distinct().count() == parameters.size();
+    }
+
+    private static long createRequiredMask(Set<NamedParameter> parameters) {
+        long mask = 0;
+        for(NamedParameter parameter : parameters){
+            if(parameter.isRequired() && parameter.getSlot() < Long.SIZE){
+                mask |= 1L << parameter.getSlot();
+            }
+        }
+        return mask;
+    }
+
+    private static Class[] createSlotTypes(Set<NamedParameter> parameters) {
+        Class[] types = new Class[parameters.size()];
+        parameters.forEach(p -> types[p.getSlot()] = p.getType());
+        return types;
+    }
+
+    /**
+     * Adapts a method to a handle of (Object target, Object[] arguments)Object. Void methods return null
+     * and static methods ignore the target.
+     * @param method The method to adapt.
+     * @return The adapted handle or null if the method is not accessible through a handle.
+     */
+    static @Nullable MethodHandle bindHandle(@Nonnull Method method) {
+        MethodHandle handle = bindNativeHandle(method);
+        return handle == null ? null : returningObject(handle);
+    }
+
+    /**
+     * Adapts a method to a handle of (Object target, Object[] arguments) returning the declared return type.
+     * @param method The method to adapt.
+     * @return The adapted handle or null if the method is not accessible through a handle.
+     */
+    private static @Nullable MethodHandle bindNativeHandle(@Nonnull Method method) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        if(Modifier.isStatic(method.getModifiers())){
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asType(handle.type().changeParameterType(0, Object.class))
+                .asSpreader(Object[].class, method.getParameterCount());
+    }
+
+    private static MethodHandle returningObject(MethodHandle handle) {
+        return handle.asType(handle.type().changeReturnType(Object.class));
+    }
+
+    /**
+     * Adapts a method with primitive parameters to a handle of (Object target, ArgumentFrame frame, int[] slots),
+     * where slots maps each parameter to its slot in the frame, as returned by {@link ArgumentFrame#bindSlots(InvokableMethod)}.
+     * int, long, double, float and boolean parameters are read from the frame without boxing. The handle
+     * returns the declared return type.
+     * @param method The method to adapt.
+     * @return The adapted handle, or null if the method has no primitive parameters or is not accessible.
+     */
+    static @Nullable MethodHandle bindFrameHandle(@Nonnull Method method) {
+        Class[] types = method.getParameterTypes();
+        if(Arrays.stream(types).noneMatch(Class::isPrimitive)){
+            return null;
+        }
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        if(Modifier.isStatic(method.getModifiers())){
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        handle = handle.asType(handle.type().changeParameterType(0, Object.class));
+        // Replace each parameter, last first, with a reader of (ArgumentFrame, int[]).
+        for (int i = types.length - 1; i >= 0; i--) {
+            handle = MethodHandles.collectArguments(handle, 1 + i, argumentReader(types[i], i));
+        }
+        // Then feed every reader the same frame and slots.
+        int[] reorder = new int[1 + 2 * types.length];
+        for (int i = 0; i < types.length; i++) {
+            reorder[1 + 2 * i] = 1;
+            reorder[2 + 2 * i] = 2;
+        }
+        return MethodHandles.permuteArguments(handle,
+                MethodType.methodType(method.getReturnType(), Object.class, ArgumentFrame.class, int[].class), reorder);
+    }
+
+    private static MethodHandle argumentReader(Class type, int slot) {
+        String reader = type == Integer.TYPE ? "intArgument" :
+                type == Long.TYPE ? "longArgument" :
+                type == Double.TYPE ? "doubleArgument" :
+                type == Float.TYPE ? "floatArgument" :
+                type == Boolean.TYPE ? "booleanArgument" : "objectArgument";
+        Class returned = "objectArgument".equals(reader) ? Object.class : type;
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().findStatic(InvokableMethod.class, reader,
+                    MethodType.methodType(returned, ArgumentFrame.class, int[].class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        handle = MethodHandles.insertArguments(handle, 2, slot);
+        // Other parameter types, including byte, short and char, are cast or unboxed from the value.
+        return handle.asType(handle.type().changeReturnType(type));
+    }
+
+    private static Object objectArgument(ArgumentFrame frame, int[] slots, int slot) {
+        return slots[slot] < 0 ? null : frame.getValue(slots[slot]);
+    }
+
+    private static int intArgument(ArgumentFrame frame, int[] slots, int slot) {
+        return frame.getInt(slots[slot]);
+    }
+
+    private static long longArgument(ArgumentFrame frame, int[] slots, int slot) {
+        return frame.getLong(slots[slot]);
+    }
+
+    private static double doubleArgument(ArgumentFrame frame, int[] slots, int slot) {
+        return frame.getDouble(slots[slot]);
+    }
+
+    private static float floatArgument(ArgumentFrame frame, int[] slots, int slot) {
+        return frame.getFloat(slots[slot]);
+    }
+
+    private static boolean booleanArgument(ArgumentFrame frame, int[] slots, int slot) {
+        return frame.getBoolean(slots[slot]);
     }
 
     /**
@@ -76,6 +385,14 @@ public class InvokableMethod {
         return name;
     }
 
+    /**
+     * The Java name of the enclosed method.
+     * @return Method name
+     */
+    public @Nonnull String getMethodName() {
+        return methodName;
+    }
+
     /**
      * The number of required parameters for the method.
      * @return Count of required parameters
@@ -89,13 +406,95 @@ public class InvokableMethod {
      * @return The native method.
      */
     public @Nonnull Method getNativeMethod(){
-        return this.method;
+        Method result = this.method;
+        if(result == null){
+            try {
+                result = type.getMethod(methodName, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Generated registry does not match "+type.getName()+"."+methodName, e);
+            }
+            this.method = result;
+        }
+        return result;
+    }
+
+    /**
+     * The declared return type of the method.
+     * @return The return type, Void.TYPE for void methods.
+     */
+    public @Nonnull Class getReturnType(){
+        return returnType;
+    }
+
+    /**
+     * The ID of this method in the Dispatcher of the type that declares it.
+     * @return The method ID, or -1 if this method was not created by an IntrospectionData.
+     */
+    public int getId(){
+        return id;
+    }
+
+    void setDispatch(@Nonnull Dispatcher dispatcher, int id){
+        this.dispatcher = dispatcher;
+        this.id = id;
+    }
+
+    /**
+     * The engine actually used to call this method. This is REFLECTION when the configured engine
+     * could not be applied to the method.
+     * @return The effective invocation engine.
+     */
+    public @Nonnull InvocationEngine getInvocationEngine(){
+        if(registry != null){
+            return InvocationEngine.GENERATED;
+        }
+        return handle == null ? InvocationEngine.REFLECTION : InvocationEngine.METHOD_HANDLE;
     }
 
     public @Nonnull Set<NamedParameter> getParameters(){
         return Collections.unmodifiableSet(parameters);
     }
 
+    /**
+     * The number of parameters the method declares, which is the length of its argument array.
+     * @return The parameter count.
+     */
+    public int getParameterCount(){
+        return parameterTypes.length;
+    }
+
+    /**
+     * Finds the index in the argument array of a named parameter.
+     * @param name The parameter name.
+     * @return The slot of the parameter, or -1 if the method has no parameter with that name.
+     */
+    public int slotOf(@Nonnull String name){
+        return slots.slotOf(name);
+    }
+
+    /**
+     * The cache of match scores for this method, for inspecting hit, miss and eviction counts.
+     * @return The memoization cache.
+     */
+    public @Nonnull ShapeCache<Integer> getMemoizations(){
+        ShapeCache<Integer> result = this.memoizations;
+        if(result == null){
+            result = new ShapeCache<>(ShapeCache.DEFAULT_CAPACITY);
+            this.memoizations = result;
+        }
+        return result;
+    }
+
+    /**
+     * Empties the match memoizations, if any have been made.
+     */
+    void clearMemoizations(){
+        ShapeCache<Integer> result = this.memoizations;
+        if(result != null){
+            result.clear();
+        }
+    }
+
     /**
      * This method returns a match distance for the given name and parameter values. The
      * return result will be  &lt; 0 for no match, 0 for exact match, and a positive integer
@@ -109,7 +508,49 @@ public class InvokableMethod {
         if (!name.equals(this.name)) {
             return -1;
         }
-        return lookupMemoized(values).orElseGet(()-> matchValues(values));
+        return matchShape(name, ParameterShape.of(values));
+    }
+
+    /**
+     * Returns the match distance for the given name and parameter shape, as
+     * {@link #matchValue(String, List)} does for values of that shape.
+     *
+     * @param name The name of the method to match.
+     * @param shape The parameter names and value types to match.
+     * @return An integer value of &lt; 0 for no match, or a distance from exact match.
+     */
+    public int matchShape(@Nonnull String name, @Nonnull ParameterShape shape) {
+        if (!name.equals(this.name)) {
+            return -1;
+        }
+        Integer memoized = getMemoizations().get(null, shape);
+        return memoized != null ? memoized : matchValues(shape);
+    }
+
+    /**
+     * Decides between two methods that both match an invocation. An exact match, with a distance of 0,
+     * wins first, then the method with more required parameters, then the smaller distance.
+     *
+     * @param score The match distance of the candidate, &gt;= 0.
+     * @param candidate The candidate method.
+     * @param bestScore The match distance of the current best method, &gt;= 0.
+     * @param best The current best method.
+     * @return true if the candidate is strictly better than the current best.
+     */
+    static boolean isBetterMatch(int score, @Nonnull InvokableMethod candidate, int bestScore, @Nonnull InvokableMethod best) {
+        return compareMatches(score, candidate, bestScore, best) < 0;
+    }
+
+    /**
+     * Orders two methods that both match an invocation by the rules of
+     * {@link #isBetterMatch(int, InvokableMethod, int, InvokableMethod)}, best first.
+     */
+    private static int compareMatches(int score1, InvokableMethod method1, int score2, InvokableMethod method2) {
+        if((score1 == 0) != (score2 == 0)){
+            return score1 == 0 ? -1 : 1;
+        }
+        int required = Integer.compare(method2.getRequiredParameterCount(), method1.getRequiredParameterCount());
+        return required != 0 ? required : Integer.compare(score1, score2);
     }
 
     /**
@@ -121,61 +562,506 @@ public class InvokableMethod {
      * @throws InvokerException thrown if something goes wrong.
      */
     public @Nullable <T> T invoke(@Nonnull Object target, @Nonnull HashMap<String, ParameterValue> values) throws InvokerException {
-        Object[] arguments = new Object[this.parameters.size()];
-        int index = 0;
+        Object[] arguments = new Object[parameterTypes.length];
         for(NamedParameter parameter : parameters){
-            arguments[index] = Optional.ofNullable(values.get(parameter.getName()))
-                    .map(ParameterValue::getValue)
-                    .orElse(null);
-            index++;
+            ParameterValue value = values.get(parameter.getName());
+            arguments[parameter.getSlot()] = value == null ? null : value.getValue();
         }
-        try {
-            Object result = this.method.invoke(target, arguments);
-            if(this.method.getReturnType().equals(Void.TYPE)){
-                return (T) Void.class;
-            } else {
-                return (T) result;
+        return invoke(target, arguments);
+    }
+
+    /**
+     * Invokes the method on the target, binding each value to the slot of the parameter with the same
+     * name. Values that don't name a parameter are ignored and unnamed parameters are passed null.
+     * @param target The target object to invoke the method on.
+     * @param values the values to pass to the method.
+     * @param <T> the return type of the method.
+     * @return The return value of the method or Void.class
+     * @throws InvokerException thrown if something goes wrong.
+     */
+    public @Nullable <T> T invoke(@Nonnull Object target, @Nonnull List<ParameterValue> values) throws InvokerException {
+        Object[] arguments = new Object[parameterTypes.length];
+        if(values instanceof RandomAccess){
+            for (int i = 0; i < values.size(); i++) {
+                bind(arguments, values.get(i));
+            }
+        } else {
+            for(ParameterValue value : values){
+                bind(arguments, value);
             }
+        }
+        return invoke(target, arguments);
+    }
+
+    /**
+     * Invokes the method on the target with the values of a frame, bound by name into an argument
+     * array owned by the frame. When the method is called through a handle, primitive values in the
+     * frame are passed to primitive parameters without boxing.
+     * @param target The target object to invoke the method on.
+     * @param frame the values to pass to the method.
+     * @param <T> the return type of the method.
+     * @return The return value of the method or Void.class
+     * @throws InvokerException thrown if something goes wrong.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable <T> T invoke(@Nonnull Object target, @Nonnull ArgumentFrame frame) throws InvokerException {
+        if(frameHandle == null){
+            return invoke(target, frame.bind(this));
+        }
+        Object result;
+        try {
+            result = (Object) frameHandle.invokeExact(target, frame, frame.bindSlots(this));
+        } catch (Throwable t) {
+            throw failed(target, frame, t);
+        }
+        return returnsVoid ? (T) Void.class : (T) result;
+    }
+
+    private void bind(Object[] arguments, ParameterValue value) {
+        int slot = slots.slotOf(value.getName());
+        if(slot >= 0){
+            arguments[slot] = value.getValue();
+        }
+    }
+
+    /**
+     * Invokes the method on the target with arguments in the declared parameter order.
+     * @param target The target object to invoke the method on.
+     * @param arguments the arguments to pass to the method, one per parameter.
+     * @param <T> the return type of the method.
+     * @return The return value of the method or Void.class
+     * @throws InvokerException thrown if something goes wrong.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable <T> T invoke(@Nonnull Object target, @Nonnull Object[] arguments) throws InvokerException {
+        if(coercion != null){
+            coerce(target, arguments);
+        }
+        Object result = call(target, arguments);
+        return returnsVoid ? (T) Void.class : (T) result;
+    }
+
+    private Object call(Object target, Object[] arguments) throws InvokerException {
+        try {
+            return handle != null ? invokeHandle(target, arguments) :
+                    registry != null ? invokeRegistry(target, arguments) :
+                    dispatcher != null ? dispatcher.call(id, this.method, target, arguments) :
+                    this.method.invoke(target, arguments);
         } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new InvokerException("Failed to invoke "+this.method.getName()+" with args"+ Arrays.toString(arguments), e, target, name, new ArrayList<>(values.values()));
+            throw new InvokerException("Failed to invoke "+this.methodName+" with args"+ Arrays.toString(arguments), e, target, name, toParameterValues(arguments));
+        } catch (RuntimeException e) {
+            // Method.invoke throws IllegalArgumentException or NullPointerException unwrapped for arguments it
+            // can't pass, such as null for a primitive, where the other engines report an InvokerException.
+            throw new InvokerException("Failed to invoke "+this.methodName+" with args"+ Arrays.toString(arguments), e, target, name, toParameterValues(arguments));
         }
     }
 
-    @SuppressWarnings("SimplifiableIfStatement")
-    private int matchValues(@Nonnull List<ParameterValue> values){
-        HashMap<String, ParameterValue> valByName = new HashMap<>(values.size());
-        values.forEach(pv -> valByName.put(pv.getName(), pv));
-        Set<NamedParameter> matches = parameters
-                .stream()
-                .filter(np -> {
-
-
-                    ParameterValue pv = valByName.get(np.getName());
-
-                    return pv != null &&
-                            (pv.getValue() == null ||
-                                    // TODO check here for coersions?
-                                    np.getType().isAssignableFrom(pv.getValue().getClass()));
-//                    if(np.getType().isPrimitive() && (pv == null || pv.getValue() == null)){
-//                        return false;
-//                    } else if(pv == null || pv.getValue() == null){
-//                        return true;
-//                    } else if(np.getType().isPrimitive() && primitiveCanMap(np.getType(), pv.getValue().getClass())){
-//                        return true;
-//                    } else {
-//                        return np.getType().isAssignableFrom(pv.getValue().getClass());
-//                    }
-
-                })
-                .collect(Collectors.toSet());
+    /**
+     * Whether the typed invoke methods returning a primitive type can be used with this method. That is
+     * when the declared return type, or the primitive type it wraps, widens to the primitive type.
+     * Every method can be called with the invokeVoid methods.
+     * @param type A primitive type.
+     * @return true if the method's results can be returned as the type.
+     */
+    public boolean canReturn(@Nonnull Class type) {
+        if(type == Void.TYPE){
+            return true;
+        }
+        Class declared = unwrap(returnType);
+        if(declared == type){
+            return declared != Void.TYPE;
+        }
+        if(declared == Character.TYPE){
+            return WIDENING.indexOf(type) >= WIDENING.indexOf(Integer.TYPE);
+        }
+        int from = WIDENING.indexOf(declared);
+        return from >= 0 && from < WIDENING.indexOf(type);
+    }
 
+    private static Class unwrap(Class type) {
+        if(type == Integer.class) return Integer.TYPE;
+        if(type == Long.class) return Long.TYPE;
+        if(type == Double.class) return Double.TYPE;
+        if(type == Boolean.class) return Boolean.TYPE;
+        if(type == Float.class) return Float.TYPE;
+        if(type == Short.class) return Short.TYPE;
+        if(type == Byte.class) return Byte.TYPE;
+        if(type == Character.class) return Character.TYPE;
+        return type;
+    }
 
+    /**
+     * Invokes a method returning an int, or a type that widens to int, without boxing the result when
+     * the method is called through a handle.
+     * @param target The target object to invoke the method on.
+     * @param arguments the arguments to pass to the method, one per parameter.
+     * @return The return value of the method.
+     * @throws InvokerException thrown if something goes wrong, or the method doesn't return an int.
+     */
+    public int invokeInt(@Nonnull Object target, @Nonnull Object[] arguments) throws InvokerException {
+        MethodHandle typed = prepare(INT_RESULT, target, arguments);
+        try {
+            if(typed != null){
+                return (int) typed.invokeExact(target, arguments);
+            }
+            Object result = call(target, arguments);
+            return result instanceof Character ? (Character) result : ((Number) result).intValue();
+        } catch (InvokerException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw failed(target, arguments, t);
+        }
+    }
+
+    /**
+     * Invokes a method returning a long, or a type that widens to long, without boxing the result when
+     * the method is called through a handle.
+     * @param target The target object to invoke the method on.
+     * @param arguments the arguments to pass to the method, one per parameter.
+     * @return The return value of the method.
+     * @throws InvokerException thrown if something goes wrong, or the method doesn't return a long.
+     */
+    public long invokeLong(@Nonnull Object target, @Nonnull Object[] arguments) throws InvokerException {
+        MethodHandle typed = prepare(LONG_RESULT, target, arguments);
+        try {
+            if(typed != null){
+                return (long) typed.invokeExact(target, arguments);
+            }
+            Object result = call(target, arguments);
+            return result instanceof Character ? (Character) result : ((Number) result).longValue();
+        } catch (InvokerException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw failed(target, arguments, t);
+        }
+    }
+
+    /**
+     * Invokes a method returning a double, or a type that widens to double, without boxing the result
+     * when the method is called through a handle.
+     * @param target The target object to invoke the method on.
+     * @param arguments the arguments to pass to the method, one per parameter.
+     * @return The return value of the method.
+     * @throws InvokerException thrown if something goes wrong, or the method doesn't return a double.
+     */
+    public double invokeDouble(@Nonnull Object target, @Nonnull Object[] arguments) throws InvokerException {
+        MethodHandle typed = prepare(DOUBLE_RESULT, target, arguments);
+        try {
+            if(typed != null){
+                return (double) typed.invokeExact(target, arguments);
+            }
+            Object result = call(target, arguments);
+            return result instanceof Character ? (Character) result : ((Number) result).doubleValue();
+        } catch (InvokerException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw failed(target, arguments, t);
+        }
+    }
 
-        // Find missing params
-        Set<NamedParameter> missing = new HashSet<>(this.parameters);
-        missing.removeAll(matches);
+    /**
+     * Invokes a method returning a boolean without boxing the result when the method is called through
+     * a handle.
+     * @param target The target object to invoke the method on.
+     * @param arguments the arguments to pass to the method, one per parameter.
+     * @return The return value of the method.
+     * @throws InvokerException thrown if something goes wrong, or the method doesn't return a boolean.
+     */
+    public boolean invokeBoolean(@Nonnull Object target, @Nonnull Object[] arguments) throws InvokerException {
+        MethodHandle typed = prepare(BOOLEAN_RESULT, target, arguments);
+        try {
+            if(typed != null){
+                return (boolean) typed.invokeExact(target, arguments);
+            }
+            return (Boolean) call(target, arguments);
+        } catch (InvokerException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw failed(target, arguments, t);
+        }
+    }
+
+    /**
+     * Invokes a method, discarding any result.
+     * @param target The target object to invoke the method on.
+     * @param arguments the arguments to pass to the method, one per parameter.
+     * @throws InvokerException thrown if something goes wrong.
+     */
+    public void invokeVoid(@Nonnull Object target, @Nonnull Object[] arguments) throws InvokerException {
+        MethodHandle typed = prepare(VOID_RESULT, target, arguments);
+        if(typed == null){
+            call(target, arguments);
+            return;
+        }
+        try {
+            typed.invokeExact(target, arguments);
+        } catch (Throwable t) {
+            throw failed(target, arguments, t);
+        }
+    }
+
+    /**
+     * Invokes a method returning an int with the values of a frame. Primitive values in the frame and
+     * the result are not boxed when the method is called through a handle.
+     * @param target The target object to invoke the method on.
+     * @param frame the values to pass to the method.
+     * @return The return value of the method.
+     * @throws InvokerException thrown if something goes wrong, or the method doesn't return an int.
+     */
+    public int invokeInt(@Nonnull Object target, @Nonnull ArgumentFrame frame) throws InvokerException {
+        MethodHandle typed = prepare(INT_RESULT, target, frame);
+        if(typed == null){
+            return invokeInt(target, frame.bind(this));
+        }
+        try {
+            return (int) typed.invokeExact(target, frame, frame.bindSlots(this));
+        } catch (Throwable t) {
+            throw failed(target, frame, t);
+        }
+    }
+
+    /**
+     * Invokes a method returning a long with the values of a frame. Primitive values in the frame and
+     * the result are not boxed when the method is called through a handle.
+     * @param target The target object to invoke the method on.
+     * @param frame the values to pass to the method.
+     * @return The return value of the method.
+     * @throws InvokerException thrown if something goes wrong, or the method doesn't return a long.
+     */
+    public long invokeLong(@Nonnull Object target, @Nonnull ArgumentFrame frame) throws InvokerException {
+        MethodHandle typed = prepare(LONG_RESULT, target, frame);
+        if(typed == null){
+            return invokeLong(target, frame.bind(this));
+        }
+        try {
+            return (long) typed.invokeExact(target, frame, frame.bindSlots(this));
+        } catch (Throwable t) {
+            throw failed(target, frame, t);
+        }
+    }
+
+    /**
+     * Invokes a method returning a double with the values of a frame. Primitive values in the frame and
+     * the result are not boxed when the method is called through a handle.
+     * @param target The target object to invoke the method on.
+     * @param frame the values to pass to the method.
+     * @return The return value of the method.
+     * @throws InvokerException thrown if something goes wrong, or the method doesn't return a double.
+     */
+    public double invokeDouble(@Nonnull Object target, @Nonnull ArgumentFrame frame) throws InvokerException {
+        MethodHandle typed = prepare(DOUBLE_RESULT, target, frame);
+        if(typed == null){
+            return invokeDouble(target, frame.bind(this));
+        }
+        try {
+            return (double) typed.invokeExact(target, frame, frame.bindSlots(this));
+        } catch (Throwable t) {
+            throw failed(target, frame, t);
+        }
+    }
+
+    /**
+     * Invokes a method returning a boolean with the values of a frame. Primitive values in the frame
+     * and the result are not boxed when the method is called through a handle.
+     * @param target The target object to invoke the method on.
+     * @param frame the values to pass to the method.
+     * @return The return value of the method.
+     * @throws InvokerException thrown if something goes wrong, or the method doesn't return a boolean.
+     */
+    public boolean invokeBoolean(@Nonnull Object target, @Nonnull ArgumentFrame frame) throws InvokerException {
+        MethodHandle typed = prepare(BOOLEAN_RESULT, target, frame);
+        if(typed == null){
+            return invokeBoolean(target, frame.bind(this));
+        }
+        try {
+            return (boolean) typed.invokeExact(target, frame, frame.bindSlots(this));
+        } catch (Throwable t) {
+            throw failed(target, frame, t);
+        }
+    }
+
+    /**
+     * Invokes a method with the values of a frame, discarding any result.
+     * @param target The target object to invoke the method on.
+     * @param frame the values to pass to the method.
+     * @throws InvokerException thrown if something goes wrong.
+     */
+    public void invokeVoid(@Nonnull Object target, @Nonnull ArgumentFrame frame) throws InvokerException {
+        MethodHandle typed = prepare(VOID_RESULT, target, frame);
+        if(typed == null){
+            invokeVoid(target, frame.bind(this));
+            return;
+        }
+        try {
+            typed.invokeExact(target, frame, frame.bindSlots(this));
+        } catch (Throwable t) {
+            throw failed(target, frame, t);
+        }
+    }
+
+    /**
+     * Checks the return type and converts the arguments for a typed invocation.
+     * @return The array handle adapted to the result type, or null to call the method and unbox the result.
+     */
+    private MethodHandle prepare(int result, Object target, Object[] arguments) throws InvokerException {
+        if(!canReturn(RESULT_TYPES[result])){
+            throw new InvokerException(this.methodName+" returns "+returnType.getName()+", not "+RESULT_TYPES[result],
+                    null, target, name, toParameterValues(arguments));
+        }
+        if(coercion != null){
+            coerce(target, arguments);
+        }
+        return typedHandle(result, nativeHandle, 0);
+    }
+
+    /**
+     * Checks the return type for a typed invocation with a frame.
+     * @return The frame handle adapted to the result type, or null to bind the frame to an array.
+     */
+    private MethodHandle prepare(int result, Object target, ArgumentFrame frame) throws InvokerException {
+        if(!canReturn(RESULT_TYPES[result])){
+            throw new InvokerException(this.methodName+" returns "+returnType.getName()+", not "+RESULT_TYPES[result],
+                    null, target, name, frame.toParameterValues());
+        }
+        return typedHandle(result, nativeFrameHandle, RESULT_TYPES.length);
+    }
+
+    private MethodHandle typedHandle(int result, MethodHandle base, int offset) {
+        if(base == null){
+            return null;
+        }
+        MethodHandle typed = typedHandles[offset + result];
+        if(typed == null){
+            // Racing threads create equivalent handles, so the last one written wins.
+            typed = base.asType(base.type().changeReturnType(RESULT_TYPES[result]));
+            typedHandles[offset + result] = typed;
+        }
+        return typed;
+    }
+
+    private InvokerException failed(Object target, Object[] arguments, Throwable t) {
+        return new InvokerException("Failed to invoke "+this.methodName+" with args"+ Arrays.toString(arguments),
+                new InvocationTargetException(t), target, name, toParameterValues(arguments));
+    }
+
+    private InvokerException failed(Object target, ArgumentFrame frame, Throwable t) {
+        return new InvokerException("Failed to invoke "+this.methodName+" with args"+ frame,
+                new InvocationTargetException(t), target, name, frame.toParameterValues());
+    }
+
+    /**
+     * Converts, in place, each argument that is not an instance of its parameter type.
+     */
+    private void coerce(Object target, Object[] arguments) throws InvokerException {
+        for (int i = 0; i < arguments.length; i++) {
+            Object value = arguments[i];
+            if(value != null && !slotTypes[i].isInstance(value)){
+                try {
+                    arguments[i] = coercion.find(value.getClass(), slotTypes[i]).convert(value);
+                } catch (RuntimeException e) {
+                    throw new InvokerException("Failed to convert "+value+" to "+slotTypes[i].getName()+" for "+this.methodName,
+                            e, target, name, toParameterValues(arguments));
+                }
+            }
+        }
+    }
+
+    private Object invokeHandle(Object target, Object[] arguments) throws InvocationTargetException {
+        try {
+            return (Object) handle.invokeExact(target, arguments);
+        } catch (Throwable t) {
+            // Match the reflective contract so callers see the same cause chain from either engine.
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private Object invokeRegistry(Object target, Object[] arguments) throws InvocationTargetException {
+        try {
+            return registry.invoke(registryIndex, target, arguments);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    @Nonnull List<ParameterValue> toParameterValues(Object[] arguments) {
+        List<ParameterValue> values = new ArrayList<>(arguments.length);
+        for(NamedParameter parameter : parameters){
+            values.add(new ParameterValue(parameter.getName(), arguments[parameter.getSlot()]));
+        }
+        return values;
+    }
+
+    /**
+     * Scores a shape with the slot of each parameter as its bit, so checking for missing, extra and null
+     * required parameters takes a few mask operations and allocates nothing.
+     */
+    private int matchValues(@Nonnull ParameterShape values){
+        if(!maskable){
+            return matchValuesByName(values);
+        }
+        long present = 0;
+        long nulls = 0;
+        boolean assignable = true;
+        int coercionCost = 0;
+        for (int i = 0; i < values.size(); i++) {
+            String name = values.getName(i);
+            int slot = name == null ? -1 : slots.slotOf(name);
+            if(slot < 0){
+                return memoize(values, -1);
+            }
+            long bit = 1L << slot;
+            if((present & bit) != 0){
+                // A repeated name, where the last value wins.
+                return matchValuesByName(values);
+            }
+            present |= bit;
+            Class type = values.getType(i);
+            if(type == null){
+                nulls |= bit;
+            } else if(!slotTypes[slot].isAssignableFrom(type)){
+                // A supplied value that can't be passed or converted to its parameter is never a match.
+                int cost = coercion == null ? -1 : coercion.costOf(type, slotTypes[slot]);
+                assignable &= cost >= 0;
+                coercionCost += cost;
+            }
+        }
+        if(!assignable || (requiredMask & ~present) != 0 || (requiredMask & nulls) != 0){
+            return memoize(values, -1);
+        }
+        // The distance from an exact match is the number of optional parameters left out plus the
+        // cost of converting values.
+        return memoize(values, slotTypes.length - Long.bitCount(present) + coercionCost);
+    }
+
+    /**
+     * Scores a shape by parameter name, for methods with more than 64 parameters or repeated names.
+     */
+    @SuppressWarnings("SimplifiableIfStatement")
+    int matchValuesByName(@Nonnull ParameterShape values){
+        // Value types by name, where a null type is a null value.
+        HashMap<String, Class> valByName = new HashMap<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            valByName.put(values.getName(i), values.getType(i));
+        }
+        // A supplied value that can't be passed or converted to its parameter is never a match.
+        int coercionCost = 0;
+        for(NamedParameter np : parameters){
+            Class type = valByName.get(np.getName());
+            if(type == null || np.getType().isAssignableFrom(type)){
+                continue;
+            }
+            int cost = coercion == null ? -1 : coercion.costOf(type, np.getType());
+            if(cost < 0){
+                return memoize(values, -1);
+            }
+            coercionCost += cost;
+        }
+        Set<NamedParameter> missing = parameters
+                .stream()
+                .filter(np -> !valByName.containsKey(np.getName()))
+                .collect(Collectors.toSet());
         // If a missing param is required, skip it.
-        if(missing.stream().filter(NamedParameter::isRequired).findFirst().isPresent()){
+        if(missing.stream().anyMatch(NamedParameter::isRequired)){
             return memoize(values, -1);
         }
         Set<String> extra = new HashSet<>(valByName.keySet());
@@ -183,50 +1069,33 @@ public class InvokableMethod {
         if(!extra.isEmpty()){
             return memoize(values, -1);
         }
-        missing.clear();
         boolean requiredNotPresent = this.parameters.stream()
-                .filter(p-> {
-                    ParameterValue value = valByName.get(p.getName());
-                    return value != null &&
+                .anyMatch(p-> valByName.containsKey(p.getName()) &&
                             p.isRequired() &&
-                            value.getValue() == null;
-                })
-                .findFirst().isPresent();
+                            valByName.get(p.getName()) == null);
         if(requiredNotPresent){
             return memoize(values, -1);
         }
-        else return memoize(values, missing.size());
-    }
-
-    private static boolean primitiveCanMap(Class primitiveType, Class<?> argumentType) {
-        return (primitiveType == Integer.TYPE && argumentType == Integer.class) ||
-                (primitiveType == Long.TYPE && argumentType == Long.class) ||
-                (primitiveType == Byte.TYPE && argumentType == Byte.class) ||
-                (primitiveType == Boolean.TYPE && argumentType == Boolean.class) ||
-                (primitiveType == Character.TYPE && argumentType == Character.class) ||
-                (primitiveType == Float.TYPE && argumentType == Float.class) ||
-                (primitiveType == Double.TYPE && argumentType == Double.class);
+        // The distance from an exact match is the number of optional parameters left out plus the
+        // cost of converting values.
+        else return memoize(values, missing.size() + coercionCost);
     }
 
     /**
      * Caches a computed score for a set of meta data around parameter values.
-     * @param values the values to check for.
+     * @param values the shape of the values to check for.
      * @param score The score to return
      * @return the score unmodified.
      */
-    private int memoize(List<ParameterValue> values, int score) {
-        this.memoizations.put(new Memoization(values), score);
+    private int memoize(ParameterShape values, int score) {
+        getMemoizations().put(null, values, score);
         return score;
     }
 
-    private @Nonnull Optional<Integer> lookupMemoized(@Nonnull List<ParameterValue> values){
-        return Optional.ofNullable(memoizations.get(new Memoization(values)));
-    }
-
     @Override
     public String toString() {
         return new StringBuilder("InvokableMethod{")
-            .append("\n\tmethod=").append(method)
+            .append("\n\tmethod=").append(method != null ? method : type.getName()+"."+methodName+Arrays.toString(parameterTypes))
             .append(",\n\t name='").append(name).append('\'')
             .append(",\n\t parameters=").append(parameters)
             .append(",\n\t requiredParameterCount=").append(requiredParameterCount)
@@ -242,7 +1111,9 @@ public class InvokableMethod {
         InvokableMethod that = (InvokableMethod) o;
 
         return requiredParameterCount == that.requiredParameterCount &&
-                method.equals(that.method) &&
+                type.equals(that.type) &&
+                methodName.equals(that.methodName) &&
+                Arrays.equals(parameterTypes, that.parameterTypes) &&
                 name.equals(that.name) &&
                 parameters.equals(that.parameters);
 
@@ -250,7 +1121,9 @@ public class InvokableMethod {
 
     @Override
     public int hashCode() {
-        int result = method.hashCode();
+        int result = type.hashCode();
+        result = 31 * result + methodName.hashCode();
+        result = 31 * result + Arrays.hashCode(parameterTypes);
         result = 31 * result + name.hashCode();
         result = 31 * result + parameters.hashCode();
         result = 31 * result + requiredParameterCount;
@@ -258,96 +1131,31 @@ public class InvokableMethod {
     }
 
     /**
-     * A Comapator implementation that returns the best-fit match score.
+     * A Comapator implementation that orders methods from the best match to the worst, using the same
+     * rules as {@link IntrospectionData#bestMatch(String, List)}. Methods that don't match sort last.
      */
      static class Comparator implements java.util.Comparator<InvokableMethod>, Serializable{
 
         private final String name;
-        private final List<ParameterValue> values;
+        private final transient ParameterShape shape;
 
         Comparator(@Nonnull String name, @Nonnull List<ParameterValue> values) {
-            this.name = name;
-            this.values = values;
-        }
-
-        @Override
-        public int compare(InvokableMethod o1, InvokableMethod o2) {
-            int o1Match = o1.matchValue(name, values);
-            int o2Match = o2.matchValue(name, values);
-            if(o1Match == 0 && o2Match == 0){
-                // If both methods are exact matches with the parameter list, return the one with the
-                // strictest set of parameters.
-                return Integer.compare(o2.getRequiredParameterCount(), o1.getRequiredParameterCount());
-            } else {
-                return Integer.compare(o2Match, o1Match);
-            }
-        }
-    }
-
-    /**
-     * A data structure for recording the parameter match significance for an invocation.
-     */
-    private static class Memoization {
-        private final MemoizedParameter[] parameters;
-
-        private Memoization(List<ParameterValue> values) {
-            this.parameters = values.stream()
-                    .map(pv -> new MemoizedParameter(pv.getName(),
-                            pv.getValue() == null ? null : pv.getValue().getClass()))
-                    .collect(Collectors.toList())
-                    .toArray(new MemoizedParameter[values.size()]);
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof Memoization)) return false;
-
-            Memoization that = (Memoization) o;
-            return Arrays.deepEquals(parameters, that.parameters);
-
-        }
-
-        @Override
-        public int hashCode() {
-            return Arrays.hashCode(parameters);
+            this(name, ParameterShape.of(values));
         }
-    }
 
-    /**
-     * Metadata for a param for memoization
-     */
-    private static class MemoizedParameter {
-        private final String name;
-        private final Class type;
-
-        /**
-         *
-         * @param name Name of the param
-         * @param type Type of the param, or null if the value is null.
-         */
-        private MemoizedParameter(@Nonnull String name, @Nullable Class type) {
+        Comparator(@Nonnull String name, @Nonnull ParameterShape shape) {
             this.name = name;
-            this.type = type;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (!(o instanceof MemoizedParameter)) return false;
-
-            MemoizedParameter that = (MemoizedParameter) o;
-
-            return name.equals(that.name) &&
-                    (type != null ? type.equals(that.type) : that.type == null);
-
+            this.shape = shape;
         }
 
         @Override
-        public int hashCode() {
-            int result = name.hashCode();
-            result = 31 * result + (type != null ? type.hashCode() : 0);
-            return result;
+        public int compare(InvokableMethod o1, InvokableMethod o2) {
+            int o1Match = o1.matchShape(name, shape);
+            int o2Match = o2.matchShape(name, shape);
+            if(o1Match < 0 || o2Match < 0){
+                return Boolean.compare(o1Match < 0, o2Match < 0);
+            }
+            return compareMatches(o1Match, o1, o2Match, o2);
         }
     }
 
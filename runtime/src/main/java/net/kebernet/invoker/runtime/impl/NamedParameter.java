@@ -18,6 +18,8 @@ package net.kebernet.invoker.runtime.impl;
 import net.kebernet.invoker.annotation.Parameter;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -29,9 +31,21 @@ public class NamedParameter {
     private final Class type;
     private final String name;
     private final boolean required;
+    private final int slot;
 
     public NamedParameter(@Nonnull java.lang.reflect.Parameter parameter, Optional<Function<java.lang.reflect.Parameter, String>> findParameterName) {
+        this(parameter, Arrays.asList(parameter.getDeclaringExecutable().getParameters()).indexOf(parameter), findParameterName);
+    }
+
+    /**
+     * Constructor
+     * @param parameter The reflected parameter.
+     * @param slot The position of the parameter in the method signature.
+     * @param findParameterName An optional strategy for naming the parameter.
+     */
+    public NamedParameter(@Nonnull java.lang.reflect.Parameter parameter, int slot, Optional<Function<java.lang.reflect.Parameter, String>> findParameterName) {
         this.parameter = parameter;
+        this.slot = slot;
         this.type = noPrimitives(parameter.getType());
         Parameter nameAnnotation = parameter.getAnnotation(Parameter.class);
         this.name = findParameterName.orElse((p)->{
@@ -47,7 +61,26 @@ public class NamedParameter {
         this.required = parameter.getType().isPrimitive() || (nameAnnotation != null && nameAnnotation.required());
     }
 
-    public java.lang.reflect.Parameter getParameter() {
+    /**
+     * Creates a parameter from metadata resolved ahead of time, without reflection.
+     * @param name The name of the parameter.
+     * @param slot The position of the parameter in the method signature.
+     * @param declaredType The declared type of the parameter.
+     * @param required Whether the parameter is required.
+     */
+    public NamedParameter(@Nonnull String name, int slot, @Nonnull Class declaredType, boolean required) {
+        this.parameter = null;
+        this.slot = slot;
+        this.type = noPrimitives(declaredType);
+        this.name = name;
+        this.required = required;
+    }
+
+    /**
+     * The reflected parameter.
+     * @return The parameter, or null if this was created from metadata resolved ahead of time.
+     */
+    public @Nullable java.lang.reflect.Parameter getParameter() {
         return parameter;
     }
 
@@ -63,6 +96,14 @@ public class NamedParameter {
         return required;
     }
 
+    /**
+     * The position of the parameter in the method signature, which is its index in the argument array.
+     * @return The slot index.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
     @Override
     public String toString() {
         return new StringBuilder("NamedParameter{")
@@ -70,6 +111,7 @@ public class NamedParameter {
             .append(", type=").append(type)
             .append(", name='").append(name).append('\'')
             .append(", required=").append(required)
+            .append(", slot=").append(slot)
             .append('}')
             .toString();
     }
@@ -82,6 +124,7 @@ public class NamedParameter {
         NamedParameter parameter1 = (NamedParameter) o;
 
         if (required != parameter1.required) return false;
+        if (slot != parameter1.slot) return false;
         if (parameter != null ? !parameter.equals(parameter1.parameter) : parameter1.parameter != null) return false;
         if (type != null ? !type.equals(parameter1.type) : parameter1.type != null) return false;
         return name != null ? name.equals(parameter1.name) : parameter1.name == null;
@@ -94,6 +137,7 @@ public class NamedParameter {
         result = 31 * result + (type != null ? type.hashCode() : 0);
         result = 31 * result + (name != null ? name.hashCode() : 0);
         result = 31 * result + (required ? 1 : 0);
+        result = 31 * result + slot;
         return result;
     }
 
@@ -0,0 +1,202 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.InvokerOptions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The overloads of one invocation name, compiled into a decision list when the type is introspected.
+ * <p>
+ * Each parameter name used by the overloads is given a bit, held in a {@link SlotTable} so the bit of
+ * each supplied name is looked up once per resolution, and each overload is reduced to a mask of its
+ * parameter names and a mask of its required ones. A method matches a shape when every supplied
+ * name is one of its parameters, every required parameter is supplied and not null, and each value
+ * can be assigned to its parameter. Its distance is then the number of its parameters minus the number
+ * supplied, and it is an exact match when its parameter mask equals the mask of the supplied names.
+ * Resolution first checks the overloads with as many parameters as there are values for an exact
+ * match, then walks the overloads ordered by most required parameters, fewest parameters and
+ * declaration order, and returns the first match. This is the method the rules of
+ * {@link InvokableMethod#isBetterMatch(int, InvokableMethod, int, InvokableMethod)} select.
+ * </p>
+ * <p>
+ * Overloads that use more than 64 parameter names or repeat a name, methods that coerce values, and
+ * shapes that repeat a name are resolved by scoring each overload instead.
+ * </p>
+ */
+final class Overloads {
+
+    private final InvokableMethod[] methods;
+    /**
+     * The bit of each parameter name, or null if the overloads are not compiled.
+     */
+    private final SlotTable bits;
+    private final InvokableMethod[] ordered;
+    /**
+     * The indexes into ordered of the overloads with each number of parameters.
+     */
+    private final int[][] byParameterCount;
+    private final long[] parameterMasks;
+    private final long[] requiredMasks;
+    /**
+     * The parameter type of each ordered method, by bit.
+     */
+    private final Class[][] types;
+
+    /**
+     * Constructor
+     * @param methods The overloads, in declaration order.
+     * @param options The options the methods were created with.
+     */
+    Overloads(@Nonnull InvokableMethod[] methods, @Nonnull InvokerOptions options) {
+        this.methods = methods;
+        Map<String, Integer> bits = new LinkedHashMap<>();
+        boolean compilable = !options.getCoercion().isPresent();
+        for(InvokableMethod method : methods){
+            for(NamedParameter parameter : method.getParameters()){
+                bits.putIfAbsent(parameter.getName(), bits.size());
+            }
+        }
+        compilable &= bits.size() <= Long.SIZE;
+        this.ordered = methods.clone();
+        this.parameterMasks = new long[methods.length];
+        this.requiredMasks = new long[methods.length];
+        this.types = new Class[methods.length][bits.size()];
+        Arrays.sort(ordered, Comparator.comparingInt(InvokableMethod::getRequiredParameterCount).reversed()
+                .thenComparingInt(m -> m.getParameters().size()));
+        this.byParameterCount = groupByParameterCount(ordered);
+        for (int i = 0; i < ordered.length && compilable; i++) {
+            for(NamedParameter parameter : ordered[i].getParameters()){
+                int bit = bits.get(parameter.getName());
+                long mask = 1L << bit;
+                compilable &= (parameterMasks[i] & mask) == 0;
+                parameterMasks[i] |= mask;
+                if(parameter.isRequired()){
+                    requiredMasks[i] |= mask;
+                }
+                types[i][bit] = parameter.getType();
+            }
+        }
+        this.bits = compilable ? new SlotTable(bits.keySet().toArray(new String[bits.size()])) : null;
+    }
+
+    private static int[][] groupByParameterCount(InvokableMethod[] ordered) {
+        int maximum = Arrays.stream(ordered).mapToInt(m -> m.getParameters().size()).max().orElse(0);
+        int[][] groups = new int[maximum + 1][];
+        for (int count = 0; count < groups.length; count++) {
+            int parameterCount = count;
+            groups[count] = IntStream.range(0, ordered.length)
+                    .filter(i -> ordered[i].getParameters().size() == parameterCount)
+                    .toArray();
+        }
+        return groups;
+    }
+
+    /**
+     * The overloads.
+     * @return The methods, in declaration order. Not a copy.
+     */
+    @Nonnull InvokableMethod[] getMethods() {
+        return methods;
+    }
+
+    /**
+     * Whether resolution uses the decision list rather than scoring every overload.
+     * @return true if the overloads are compiled.
+     */
+    boolean isCompiled() {
+        return bits != null;
+    }
+
+    /**
+     * Finds the best match for a parameter shape.
+     * @param name The invocation name.
+     * @param shape The parameter names and value types.
+     * @return The best matching method or null.
+     */
+    @Nullable InvokableMethod resolve(@Nonnull String name, @Nonnull ParameterShape shape) {
+        if(bits == null || shape.size() > Long.SIZE){
+            return score(name, shape);
+        }
+        long present = 0;
+        long nulls = 0;
+        int[] shapeBits = new int[shape.size()];
+        for (int i = 0; i < shape.size(); i++) {
+            String parameterName = shape.getName(i);
+            int bit = parameterName == null ? -1 : bits.slotOf(parameterName);
+            if(bit < 0){
+                // No overload has a parameter with this name.
+                return null;
+            }
+            long mask = 1L << bit;
+            if((present & mask) != 0){
+                return score(name, shape);
+            }
+            present |= mask;
+            shapeBits[i] = bit;
+            if(shape.getType(i) == null){
+                nulls |= mask;
+            }
+        }
+        int supplied = Long.bitCount(present);
+        if(supplied < byParameterCount.length){
+            for(int m : byParameterCount[supplied]){
+                if(parameterMasks[m] == present && (requiredMasks[m] & nulls) == 0 && assignable(m, shape, shapeBits)){
+                    return ordered[m];
+                }
+            }
+        }
+        for (int m = 0; m < ordered.length; m++) {
+            long required = requiredMasks[m];
+            if((present & ~parameterMasks[m]) == 0 && (required & ~present) == 0 &&
+                    (required & nulls) == 0 && assignable(m, shape, shapeBits)){
+                return ordered[m];
+            }
+        }
+        return null;
+    }
+
+    private boolean assignable(int m, ParameterShape shape, int[] shapeBits) {
+        Class[] parameterTypes = types[m];
+        for (int i = 0; i < shapeBits.length; i++) {
+            Class type = shape.getType(i);
+            if(type != null && !parameterTypes[shapeBits[i]].isAssignableFrom(type)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private InvokableMethod score(String name, ParameterShape shape) {
+        InvokableMethod best = null;
+        int bestScore = -1;
+        for(InvokableMethod candidate : methods){
+            int score = candidate.matchShape(name, shape);
+            if(score >= 0 && (best == null || InvokableMethod.isBetterMatch(score, candidate, bestScore, best))){
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.ParameterValue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * The shape of a set of arguments: the parameter names and the classes of their values, in order.
+ * This is all that matching an invocation to a method depends on.
+ */
+public interface ParameterShape {
+
+    /**
+     * The number of parameters.
+     * @return The parameter count.
+     */
+    int size();
+
+    /**
+     * The name of a parameter.
+     * @param index The index of the parameter.
+     * @return The name of the parameter.
+     */
+    @Nonnull String getName(int index);
+
+    /**
+     * The class of the value of a parameter.
+     * @param index The index of the parameter.
+     * @return The class of the value, or null if the value is null.
+     */
+    @Nullable Class getType(int index);
+
+    /**
+     * The shape of a list of ParameterValues.
+     * @param values The values.
+     * @return A view of the shape of the values.
+     */
+    static @Nonnull ParameterShape of(@Nonnull List<ParameterValue> values) {
+        return new ParameterShape() {
+            @Override
+            public int size() {
+                return values.size();
+            }
+
+            @Override
+            public @Nonnull String getName(int index) {
+                return values.get(index).getName();
+            }
+
+            @Override
+            public @Nullable Class getType(int index) {
+                Object value = values.get(index).getValue();
+                return value == null ? null : value.getClass();
+            }
+        };
+    }
+
+    /**
+     * A shape from parallel arrays of names and value classes.
+     * @param names The parameter names.
+     * @param types The value classes, with null for null values.
+     * @return A view of the shape.
+     */
+    static @Nonnull ParameterShape of(@Nonnull String[] names, @Nonnull Class[] types) {
+        if(names.length != types.length){
+            throw new IllegalArgumentException("Expected "+names.length+" types but got "+types.length);
+        }
+        return new ParameterShape() {
+            @Override
+            public int size() {
+                return names.length;
+            }
+
+            @Override
+            public @Nonnull String getName(int index) {
+                return names[index];
+            }
+
+            @Override
+            public @Nullable Class getType(int index) {
+                return types[index];
+            }
+        };
+    }
+}
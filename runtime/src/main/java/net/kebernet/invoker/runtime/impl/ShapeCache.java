@@ -0,0 +1,253 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free cache keyed on a {@link ParameterShape}: the parameter names and
+ * the classes of their values, in order. An optional key name (such as an invocation
+ * name) can be folded into the key as well.
+ * <p>
+ * Entries are located by a 64-bit fingerprint of the shape and then verified against
+ * the stored names and classes, so a lookup never allocates and a fingerprint collision
+ * can never return the wrong value. Each fingerprint has two candidate slots in a fixed
+ * size table; when both are taken a new entry evicts one of them.
+ * </p>
+ * @param <V> The type of the cached values.
+ */
+public class ShapeCache<V> {
+
+    /**
+     * The default number of entries in a cache.
+     */
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private static final long NULL_TYPE_HASH = 0x632BE59BD9B4E019L;
+
+    private final AtomicReferenceArray<Entry<V>> table;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor
+     * @param capacity The maximum number of entries, rounded up to a power of two.
+     */
+    public ShapeCache(int capacity) {
+        if(capacity < 1){
+            throw new IllegalArgumentException("Capacity must be positive: "+capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if(size < capacity){
+            size <<= 1;
+        }
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Computes the fingerprint of a shape.
+     * @param name The optional key name.
+     * @param shape The parameter shape.
+     * @return A 64-bit hash of the name and each (parameter name, value class) pair.
+     */
+    public static long fingerprint(@Nullable String name, @Nonnull ParameterShape shape) {
+        long hash = name == null ? 0 : name.hashCode();
+        for (int i = 0; i < shape.size(); i++) {
+            Class type = shape.getType(i);
+            hash = (hash ^ shape.getName(i).hashCode()) * 0x9E3779B97F4A7C15L;
+            hash = (hash ^ (type == null ? NULL_TYPE_HASH : type.hashCode())) * 0xC2B2AE3D27D4EB4FL;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Looks up a cached value.
+     * @param name The optional key name.
+     * @param shape The parameter shape.
+     * @return The cached value or null.
+     */
+    public @Nullable V get(@Nullable String name, @Nonnull ParameterShape shape) {
+        return get(fingerprint(name, shape), name, shape);
+    }
+
+    /**
+     * Looks up a cached value with a precomputed fingerprint.
+     * @param fingerprint The fingerprint from {@link #fingerprint(String, ParameterShape)}
+     * @param name The optional key name.
+     * @param shape The parameter shape.
+     * @return The cached value or null.
+     */
+    public @Nullable V get(long fingerprint, @Nullable String name, @Nonnull ParameterShape shape) {
+        int index = (int) fingerprint & mask;
+        Entry<V> entry = table.get(index);
+        if(entry == null || !entry.matches(fingerprint, name, shape)){
+            entry = table.get((index + 1) & mask);
+            if(entry == null || !entry.matches(fingerprint, name, shape)){
+                misses.increment();
+                return null;
+            }
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Caches a value, possibly evicting another entry.
+     * @param name The optional key name.
+     * @param shape The parameter shape.
+     * @param value The value to cache.
+     * @return The value unmodified.
+     */
+    public @Nonnull V put(@Nullable String name, @Nonnull ParameterShape shape, @Nonnull V value) {
+        return put(fingerprint(name, shape), name, shape, value);
+    }
+
+    /**
+     * Caches a value with a precomputed fingerprint, possibly evicting another entry.
+     * @param fingerprint The fingerprint from {@link #fingerprint(String, ParameterShape)}
+     * @param name The optional key name.
+     * @param shape The parameter shape.
+     * @param value The value to cache.
+     * @return The value unmodified.
+     */
+    public @Nonnull V put(long fingerprint, @Nullable String name, @Nonnull ParameterShape shape, @Nonnull V value) {
+        Entry<V> entry = new Entry<>(fingerprint, name, shape, value);
+        int index = (int) fingerprint & mask;
+        Entry<V> existing = table.get(index);
+        if(existing != null && !existing.sameKey(entry)){
+            int alternate = (index + 1) & mask;
+            Entry<V> other = table.get(alternate);
+            if(other == null || other.sameKey(entry)){
+                index = alternate;
+            }
+        }
+        Entry<V> previous = table.getAndSet(index, entry);
+        if(previous != null && !previous.sameKey(entry)){
+            evictions.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Removes every entry from the cache. The statistics are not reset.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+
+    /**
+     * The maximum number of entries this cache holds.
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return table.length();
+    }
+
+    /**
+     * The number of lookups that found a value.
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * The number of lookups that did not find a value.
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * The number of entries that were replaced by an entry with a different key.
+     * @return The eviction count.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("ShapeCache{")
+                .append("capacity=").append(table.length())
+                .append(", hits=").append(getHitCount())
+                .append(", misses=").append(getMissCount())
+                .append(", evictions=").append(getEvictionCount())
+                .append('}')
+                .toString();
+    }
+
+    /**
+     * An immutable cache entry holding the full key so fingerprint collisions can be detected.
+     */
+    private static class Entry<V> {
+        private final long fingerprint;
+        private final String name;
+        private final String[] names;
+        private final Class[] types;
+        private final V value;
+
+        private Entry(long fingerprint, String name, ParameterShape shape, V value) {
+            this.fingerprint = fingerprint;
+            this.name = name;
+            this.names = new String[shape.size()];
+            this.types = new Class[shape.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = shape.getName(i);
+                types[i] = shape.getType(i);
+            }
+            this.value = value;
+        }
+
+        private boolean matches(long fingerprint, String name, ParameterShape shape) {
+            if(this.fingerprint != fingerprint || names.length != shape.size() ||
+                    (this.name == null ? name != null : !this.name.equals(name))){
+                return false;
+            }
+            for (int i = 0; i < names.length; i++) {
+                if(types[i] != shape.getType(i) || !names[i].equals(shape.getName(i))){
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean sameKey(Entry<V> other) {
+            if(fingerprint != other.fingerprint || names.length != other.names.length ||
+                    (name == null ? other.name != null : !name.equals(other.name))){
+                return false;
+            }
+            for (int i = 0; i < names.length; i++) {
+                if(types[i] != other.types[i] || !names[i].equals(other.names[i])){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * An immutable, open addressed table from parameter names to the slots of a method's argument array.
+ * <p>
+ * The table is at least twice the number of names and the hash seed is chosen when the table is built
+ * so that every name lands in its own bucket when possible. A lookup is then a single hash and string
+ * comparison, without the boxing and entry allocation of a HashMap.
+ * </p>
+ */
+final class SlotTable {
+
+    private static final int MAX_SEEDS = 64;
+
+    private final String[] keys;
+    private final int[] slots;
+    private final int mask;
+    private final int seed;
+
+    /**
+     * Constructor
+     * @param names The parameter names, in slot order.
+     */
+    SlotTable(@Nonnull String[] names) {
+        int size = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1;
+        this.mask = size - 1;
+        this.keys = new String[size];
+        this.slots = new int[size];
+        this.seed = findSeed(names, mask);
+        for (int slot = 0; slot < names.length; slot++) {
+            int index = bucket(names[slot], seed, mask);
+            while(keys[index] != null){
+                index = (index + 1) & mask;
+            }
+            keys[index] = names[slot];
+            slots[index] = slot;
+        }
+    }
+
+    /**
+     * Finds the first seed that places every name in a distinct bucket, or 0 if none of the attempted
+     * seeds do, in which case collisions are resolved by linear probing.
+     */
+    private static int findSeed(String[] names, int mask) {
+        boolean[] used = new boolean[mask + 1];
+        for (int seed = 0; seed < MAX_SEEDS; seed++) {
+            Arrays.fill(used, false);
+            boolean perfect = true;
+            for (String name : names) {
+                int index = bucket(name, seed, mask);
+                if(used[index]){
+                    perfect = false;
+                    break;
+                }
+                used[index] = true;
+            }
+            if(perfect){
+                return seed;
+            }
+        }
+        return 0;
+    }
+
+    private static int bucket(String name, int seed, int mask) {
+        int hash = (name.hashCode() ^ seed) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Finds the slot for a parameter name.
+     * @param name The parameter name.
+     * @return The slot, or -1 if the method has no parameter with that name.
+     */
+    int slotOf(@Nonnull String name) {
+        int index = bucket(name, seed, mask);
+        String key;
+        while((key = keys[index]) != null){
+            if(key.equals(name)){
+                return slots[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.spi.InvokerRegistry;
+import net.kebernet.invoker.runtime.spi.MethodDescriptor;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A registry restored from an {@link IntrospectionSnapshot}. Each method is resolved by its exact
+ * signature the first time it is called, rather than by listing every method on the type.
+ */
+class SnapshotRegistry implements InvokerRegistry {
+
+    private final Class<?> type;
+    private final List<MethodDescriptor> methods;
+    /**
+     * The handle for each method, or the Method itself when it isn't accessible through a handle.
+     */
+    private final AtomicReferenceArray<Object> callables;
+
+    SnapshotRegistry(@Nonnull Class<?> type, @Nonnull List<MethodDescriptor> methods) {
+        this.type = type;
+        this.methods = Collections.unmodifiableList(methods);
+        this.callables = new AtomicReferenceArray<>(methods.size());
+    }
+
+    @Override
+    public @Nonnull Class<?> getType() {
+        return type;
+    }
+
+    @Override
+    public @Nonnull List<MethodDescriptor> getMethods() {
+        return methods;
+    }
+
+    @Override
+    public Object invoke(int index, @Nonnull Object target, @Nonnull Object[] arguments) throws Throwable {
+        Object callable = callables.get(index);
+        if(callable == null){
+            callable = resolve(index);
+            callables.set(index, callable);
+        }
+        if(callable instanceof MethodHandle){
+            return (Object) ((MethodHandle) callable).invokeExact(target, arguments);
+        }
+        try {
+            return ((Method) callable).invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object resolve(int index) throws NoSuchMethodException {
+        MethodDescriptor descriptor = methods.get(index);
+        Method method = type.getMethod(descriptor.getMethodName(), descriptor.getParameterTypes());
+        MethodHandle handle = InvokableMethod.bindHandle(method);
+        return handle != null ? handle : method;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.TypeCoercion;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * The IntrospectionData of an Invoker, by type, held so that it never keeps a class or its class
+ * loader from being unloaded.
+ * <p>
+ * Each entry is stored with its type through a {@link ClassValue}, so it is only reachable from the
+ * class itself and is collected along with it. Lookups are a ClassValue read and a volatile read,
+ * with no locking, and a type is introspected once on a cold lookup. The types are also tracked
+ * weakly by class loader so that they can be listed and evicted.
+ * </p>
+ */
+public class TypeRegistry {
+
+    private final Entries entries = new Entries();
+    private final Map<ClassLoader, Set<Class>> typesByLoader = new WeakHashMap<>();
+    private final TypeCoercion coercion;
+
+    /**
+     * Constructor
+     * @param coercion The coercion used by the data, whose converters are cleared on eviction, or null.
+     */
+    public TypeRegistry(@Nullable TypeCoercion coercion) {
+        this.coercion = coercion;
+    }
+
+    /**
+     * Looks up the IntrospectionData of a type.
+     * @param type The type.
+     * @return The data, or null if the type has not been introspected.
+     */
+    public @Nullable IntrospectionData get(@Nonnull Class type) {
+        return entries.get(type).data;
+    }
+
+    /**
+     * Looks up the IntrospectionData of a type, introspecting it if needed. Concurrent lookups of a new
+     * type introspect it once.
+     * @param type The type.
+     * @param introspect Creates the data for the type.
+     * @return The data.
+     */
+    public @Nonnull IntrospectionData computeIfAbsent(@Nonnull Class type, @Nonnull Function<Class, IntrospectionData> introspect) {
+        Entry entry = entries.get(type);
+        IntrospectionData data = entry.data;
+        if(data == null){
+            synchronized (entry) {
+                data = entry.data;
+                if(data == null){
+                    data = introspect.apply(type);
+                    entry.data = data;
+                    track(type);
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Sets the IntrospectionData of a type, clearing the caches of any data it replaces.
+     * @param type The type.
+     * @param data The new data.
+     */
+    public void put(@Nonnull Class type, @Nonnull IntrospectionData data) {
+        Entry entry = entries.get(type);
+        synchronized (entry) {
+            if(entry.data != null){
+                entry.data.clearCaches();
+            }
+            entry.data = data;
+            track(type);
+        }
+    }
+
+    /**
+     * The IntrospectionData of every type that has not been unloaded or evicted.
+     * @return A copy of the data.
+     */
+    public @Nonnull List<IntrospectionData> values() {
+        List<IntrospectionData> values = new ArrayList<>();
+        for(Class type : types(null, true)){
+            IntrospectionData data = get(type);
+            if(data != null){
+                values.add(data);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Removes the IntrospectionData of every type loaded by a class loader or one of its descendants,
+     * such as a web application that is being redeployed. The resolution caches of the remaining types
+     * and of the coercion are cleared as well, since they may refer to the classes of values from the
+     * evicted loaders.
+     * @param loader The class loader.
+     * @return The number of types evicted.
+     */
+    public int evict(@Nonnull ClassLoader loader) {
+        List<Class> evicted = types(loader, false);
+        evicted.forEach(entries::remove);
+        values().forEach(IntrospectionData::clearCaches);
+        if(coercion != null){
+            coercion.clearCache();
+        }
+        return evicted.size();
+    }
+
+    private void track(Class type) {
+        synchronized (typesByLoader) {
+            typesByLoader.computeIfAbsent(type.getClassLoader(), l -> Collections.newSetFromMap(new WeakHashMap<>()))
+                    .add(type);
+        }
+    }
+
+    /**
+     * Lists the tracked types, either all of them or those loaded by a loader or its descendants, which
+     * are then no longer tracked.
+     */
+    private List<Class> types(ClassLoader ancestor, boolean all) {
+        List<Class> types = new ArrayList<>();
+        synchronized (typesByLoader) {
+            typesByLoader.entrySet().removeIf(e -> {
+                if(all || isDescendant(e.getKey(), ancestor)){
+                    types.addAll(e.getValue());
+                    return !all;
+                }
+                return false;
+            });
+        }
+        return types;
+    }
+
+    private static boolean isDescendant(ClassLoader loader, ClassLoader ancestor) {
+        for(ClassLoader next = loader; next != null; next = next.getParent()){
+            if(next == ancestor){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The holder stored with each type. It never refers to the TypeRegistry or its ClassValue, since a
+     * value that can reach its own ClassValue is never collected.
+     */
+    private static final class Entry {
+        private volatile IntrospectionData data;
+    }
+
+    private static final class Entries extends ClassValue<Entry> {
+        @Override
+        protected Entry computeValue(Class<?> type) {
+            return new Entry();
+        }
+    }
+}
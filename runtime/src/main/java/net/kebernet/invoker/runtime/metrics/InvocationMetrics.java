@@ -0,0 +1,163 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for one invocation name on one type.
+ */
+public final class InvocationMetrics implements InvocationMetricsMXBean {
+
+    private final Class type;
+    private final String invocationName;
+    private final LatencyHistogram invocationLatency = new LatencyHistogram();
+    private final LatencyHistogram resolutionLatency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder resolutionHits = new LongAdder();
+    private final LongAdder resolutionMisses = new LongAdder();
+    private final LongAdder noMatches = new LongAdder();
+
+    InvocationMetrics(@Nonnull Class type, @Nonnull String invocationName) {
+        this.type = type;
+        this.invocationName = invocationName;
+    }
+
+    void resolved(boolean cached, boolean matched, long nanos) {
+        (cached ? resolutionHits : resolutionMisses).increment();
+        if(!matched){
+            noMatches.increment();
+        }
+        resolutionLatency.record(nanos);
+    }
+
+    void invoked(long nanos) {
+        invocationLatency.record(nanos);
+    }
+
+    void failed() {
+        errors.increment();
+    }
+
+    /**
+     * The type.
+     * @return The type.
+     */
+    public @Nonnull Class getType() {
+        return type;
+    }
+
+    /**
+     * The latencies of the calls that returned normally, excluding resolution.
+     * @return The histogram.
+     */
+    public @Nonnull LatencyHistogram getInvocationLatency() {
+        return invocationLatency;
+    }
+
+    /**
+     * The latencies of resolving the invocation name to a method.
+     * @return The histogram.
+     */
+    public @Nonnull LatencyHistogram getResolutionLatency() {
+        return resolutionLatency;
+    }
+
+    @Override
+    public String getTypeName() {
+        return type.getName();
+    }
+
+    @Override
+    public String getInvocationName() {
+        return invocationName;
+    }
+
+    @Override
+    public long getInvocationCount() {
+        return invocationLatency.getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getResolutionHitCount() {
+        return resolutionHits.sum();
+    }
+
+    @Override
+    public long getResolutionMissCount() {
+        return resolutionMisses.sum();
+    }
+
+    @Override
+    public double getResolutionHitRatio() {
+        long hits = resolutionHits.sum();
+        long total = hits + resolutionMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getNoMatchCount() {
+        return noMatches.sum();
+    }
+
+    @Override
+    public double getMeanInvocationNanos() {
+        return invocationLatency.getMean();
+    }
+
+    @Override
+    public long getMedianInvocationNanos() {
+        return invocationLatency.getPercentile(50);
+    }
+
+    @Override
+    public long get99thPercentileInvocationNanos() {
+        return invocationLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getMaxInvocationNanos() {
+        return invocationLatency.getMax();
+    }
+
+    @Override
+    public double getMeanResolutionNanos() {
+        return resolutionLatency.getMean();
+    }
+
+    @Override
+    public long get99thPercentileResolutionNanos() {
+        return resolutionLatency.getPercentile(99);
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("InvocationMetrics{")
+                .append("type=").append(type.getName())
+                .append(", invocationName='").append(invocationName).append('\'')
+                .append(", errors=").append(getErrorCount())
+                .append(", resolutionHitRatio=").append(getResolutionHitRatio())
+                .append(", invocationLatency=").append(invocationLatency)
+                .append('}')
+                .toString();
+    }
+}
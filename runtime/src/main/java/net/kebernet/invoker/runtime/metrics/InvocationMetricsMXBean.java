@@ -0,0 +1,54 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+/**
+ * The management interface of the metrics for one invocation name on one type.
+ */
+public interface InvocationMetricsMXBean {
+
+    String getTypeName();
+
+    String getInvocationName();
+
+    long getInvocationCount();
+
+    long getErrorCount();
+
+    long getResolutionHitCount();
+
+    long getResolutionMissCount();
+
+    /**
+     * The fraction of resolutions served from the resolution cache.
+     * @return The ratio from 0 to 1, or 0 if there have been no resolutions.
+     */
+    double getResolutionHitRatio();
+
+    long getNoMatchCount();
+
+    double getMeanInvocationNanos();
+
+    long getMedianInvocationNanos();
+
+    long get99thPercentileInvocationNanos();
+
+    long getMaxInvocationNanos();
+
+    double getMeanResolutionNanos();
+
+    long get99thPercentileResolutionNanos();
+}
@@ -0,0 +1,197 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.impl.InvokableMethod;
+import net.kebernet.invoker.runtime.spi.InvokerListener;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An InvokerListener that keeps metrics per type and per (type, invocation name): introspection
+ * times, resolution cache hits and misses, resolution and invocation latency histograms and error
+ * counts. Recording uses striped counters only, so it does not contend between threads and does not
+ * allocate once a name has been seen. Only the names of methods a type actually has get their own
+ * metrics; resolutions of any other name are counted together per type, so arbitrary names from
+ * untrusted input cannot grow the metrics. The metrics of a type are stored with it through a
+ * {@link ClassValue}, so they never keep a class from being unloaded.
+ * <pre>
+ *     InvokerMetrics metrics = new InvokerMetrics();
+ *     JmxExporter exporter = metrics.exportToPlatformMBeanServer();
+ *     Invoker invoker = new Invoker(InvokerOptions.builder().listener(metrics).build());
+ * </pre>
+ */
+public class InvokerMetrics implements InvokerListener {
+
+    private final Entries types = new Entries();
+    private final Set<Class> known = Collections.newSetFromMap(new WeakHashMap<>());
+    private final CopyOnWriteArrayList<JmxExporter> exporters = new CopyOnWriteArrayList<>();
+    private final Queue<Object> unexported = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void introspected(@Nonnull Class type, int methodCount, long nanos) {
+        type(type).introspected(nanos);
+    }
+
+    @Override
+    public void resolved(@Nonnull Class type, @Nonnull String invocationName, int candidateCount, boolean cached, boolean matched, long nanos) {
+        TypeMetrics metrics = type(type);
+        if(candidateCount == 0){
+            metrics.unmatched();
+        } else {
+            metrics.invocation(invocationName).resolved(cached, matched, nanos);
+        }
+    }
+
+    @Override
+    public void invoked(@Nonnull Class type, @Nonnull InvokableMethod method, long nanos) {
+        type(type).invocation(method.getName()).invoked(nanos);
+    }
+
+    @Override
+    public void failed(@Nonnull Class type, @Nonnull String invocationName, @Nullable InvokableMethod method, long nanos, @Nonnull InvokerException exception) {
+        TypeMetrics metrics = type(type);
+        // A name that matched no method was already counted when it was resolved.
+        InvocationMetrics invocation = method != null ? metrics.invocation(invocationName) : metrics.getInvocation(invocationName);
+        if(invocation != null){
+            invocation.failed();
+        }
+    }
+
+    /**
+     * The metrics for a type.
+     * @param type The type.
+     * @return The metrics, or null if the type has not been introspected or invoked.
+     */
+    public @Nullable TypeMetrics getType(@Nonnull Class type) {
+        return types.get(type).metrics;
+    }
+
+    /**
+     * The metrics for every type that has been introspected or invoked and not unloaded.
+     * @return A copy of the metrics.
+     */
+    public @Nonnull Collection<TypeMetrics> getTypes() {
+        List<Class> classes;
+        synchronized (known) {
+            classes = new ArrayList<>(known);
+        }
+        List<TypeMetrics> metrics = new ArrayList<>(classes.size());
+        for(Class type : classes){
+            metrics.add(types.get(type).metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * The metrics for an invocation name on a type.
+     * @param type The type.
+     * @param invocationName The invocation name.
+     * @return The metrics, or null if the name has not been resolved or invoked on the type.
+     */
+    public @Nullable InvocationMetrics getInvocation(@Nonnull Class type, @Nonnull String invocationName) {
+        TypeMetrics metrics = getType(type);
+        return metrics == null ? null : metrics.getInvocation(invocationName);
+    }
+
+    /**
+     * Publishes these metrics as MXBeans in the platform MBeanServer under the
+     * {@value JmxExporter#DEFAULT_DOMAIN} domain.
+     * @return The exporter, which unregisters the MXBeans when closed.
+     */
+    public @Nonnull JmxExporter exportToPlatformMBeanServer() {
+        return new JmxExporter(this);
+    }
+
+    void addExporter(JmxExporter exporter) {
+        exporters.add(exporter);
+    }
+
+    void removeExporter(JmxExporter exporter) {
+        exporters.remove(exporter);
+        if(exporters.isEmpty()){
+            unexported.clear();
+        }
+    }
+
+    /**
+     * Registers the metrics created since the last export with the exporters. Registration is left to
+     * the readers of the metrics so that it never runs on the invocation path.
+     */
+    void export() {
+        Object created;
+        while((created = unexported.poll()) != null){
+            for(JmxExporter exporter : exporters){
+                if(created instanceof TypeMetrics){
+                    exporter.register((TypeMetrics) created);
+                } else {
+                    exporter.register((InvocationMetrics) created);
+                }
+            }
+        }
+    }
+
+    private TypeMetrics type(Class type) {
+        Entry entry = types.get(type);
+        TypeMetrics metrics = entry.metrics;
+        if(metrics == null){
+            synchronized (entry) {
+                metrics = entry.metrics;
+                if(metrics == null){
+                    metrics = new TypeMetrics(type, this::created, this::export);
+                    entry.metrics = metrics;
+                    synchronized (known) {
+                        known.add(type);
+                    }
+                    created(metrics);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Queues new metrics for the exporters. Metrics are only queued after they are published, so an
+     * exporter that is being added either finds them or has them queued.
+     */
+    private void created(Object metrics) {
+        if(!exporters.isEmpty()){
+            unexported.add(metrics);
+        }
+    }
+
+    private static class Entry {
+        private volatile TypeMetrics metrics;
+    }
+
+    private static class Entries extends ClassValue<Entry> {
+        @Override
+        protected Entry computeValue(Class<?> type) {
+            return new Entry();
+        }
+    }
+}
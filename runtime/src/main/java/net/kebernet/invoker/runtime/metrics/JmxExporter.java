@@ -0,0 +1,138 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+import javax.annotation.Nonnull;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes InvokerMetrics as MXBeans, one per type named
+ * {@code <domain>:type=Type,class=<class name>} and one per invocation name named
+ * {@code <domain>:type=Invocation,class=<class name>,name=<invocation name>}. Metrics created after the
+ * exporter are registered off the invocation path: when the totals of a type's MXBean are read, or on
+ * {@link #refresh()}. Names that are already registered, for example by another exporter with the same
+ * domain, are skipped. Registered MXBeans keep their types reachable until the exporter is closed.
+ */
+public class JmxExporter implements AutoCloseable {
+
+    /**
+     * The domain used when none is given.
+     */
+    public static final String DEFAULT_DOMAIN = "net.kebernet.invoker";
+
+    private final InvokerMetrics metrics;
+    private final MBeanServer server;
+    private final String domain;
+    private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Exports to the platform MBeanServer under the default domain.
+     * @param metrics The metrics to export.
+     */
+    public JmxExporter(@Nonnull InvokerMetrics metrics) {
+        this(metrics, ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+    }
+
+    /**
+     * Constructor
+     * @param metrics The metrics to export.
+     * @param server The server to register the MXBeans with.
+     * @param domain The domain of the MXBean names.
+     */
+    public JmxExporter(@Nonnull InvokerMetrics metrics, @Nonnull MBeanServer server, @Nonnull String domain) {
+        this.metrics = metrics;
+        this.server = server;
+        this.domain = domain;
+        metrics.addExporter(this);
+        for(TypeMetrics type : metrics.getTypes()){
+            register(type);
+            type.getInvocations().forEach(this::register);
+        }
+    }
+
+    /**
+     * Registers the metrics created since they were last read or refreshed.
+     */
+    public void refresh() {
+        metrics.export();
+    }
+
+    /**
+     * The name a type's metrics are registered under.
+     * @param type The type.
+     * @return The object name.
+     */
+    public @Nonnull ObjectName getName(@Nonnull Class type) {
+        return name("type=Type,class=" + ObjectName.quote(type.getName()));
+    }
+
+    /**
+     * The name the metrics of an invocation name are registered under.
+     * @param type The type.
+     * @param invocationName The invocation name.
+     * @return The object name.
+     */
+    public @Nonnull ObjectName getName(@Nonnull Class type, @Nonnull String invocationName) {
+        return name("type=Invocation,class=" + ObjectName.quote(type.getName()) + ",name=" + ObjectName.quote(invocationName));
+    }
+
+    void register(TypeMetrics type) {
+        register(type, getName(type.getType()));
+    }
+
+    void register(InvocationMetrics invocation) {
+        register(invocation, getName(invocation.getType(), invocation.getInvocationName()));
+    }
+
+    private void register(Object bean, ObjectName name) {
+        try {
+            server.registerMBean(bean, name);
+            registered.add(name);
+        } catch (JMException e) {
+            // Already registered, or not a compliant bean; metrics are best effort.
+        }
+    }
+
+    private ObjectName name(String properties) {
+        try {
+            return new ObjectName(domain + ":" + properties);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid JMX domain "+domain, e);
+        }
+    }
+
+    /**
+     * Stops exporting new metrics and unregisters the MXBeans this exporter registered.
+     */
+    @Override
+    public void close() {
+        metrics.removeExporter(this);
+        for(ObjectName name : registered){
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already unregistered elsewhere.
+            }
+        }
+        registered.clear();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+import net.kebernet.invoker.runtime.impl.ParameterShape;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable trace of one slow invocation. It holds the shape of the arguments, their names and
+ * classes, but never the values.
+ */
+public final class SlowInvocation {
+
+    /**
+     * The position of this trace among the slow invocations recorded by its sampler.
+     */
+    final long sequence;
+    private final long timestamp;
+    private final String threadName;
+    private final Class type;
+    private final String invocationName;
+    private final String[] parameterNames;
+    private final Class[] parameterTypes;
+    private final long resolutionNanos;
+    private final long executionNanos;
+    private final boolean failed;
+
+    SlowInvocation(long sequence, @Nonnull Class type, @Nonnull String invocationName, @Nonnull ParameterShape shape,
+                   long resolutionNanos, long executionNanos, boolean failed) {
+        this.sequence = sequence;
+        this.timestamp = System.currentTimeMillis();
+        this.threadName = Thread.currentThread().getName();
+        this.type = type;
+        this.invocationName = invocationName;
+        this.parameterNames = new String[shape.size()];
+        this.parameterTypes = new Class[shape.size()];
+        for (int i = 0; i < parameterNames.length; i++) {
+            parameterNames[i] = shape.getName(i);
+            parameterTypes[i] = shape.getType(i);
+        }
+        this.resolutionNanos = resolutionNanos;
+        this.executionNanos = executionNanos;
+        this.failed = failed;
+    }
+
+    /**
+     * When the invocation finished.
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * The name of the thread that made the invocation.
+     * @return The thread name.
+     */
+    public @Nonnull String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * The type invoked on.
+     * @return The type.
+     */
+    public @Nonnull Class getType() {
+        return type;
+    }
+
+    /**
+     * The invocation name.
+     * @return The invocation name.
+     */
+    public @Nonnull String getInvocationName() {
+        return invocationName;
+    }
+
+    /**
+     * The names of the arguments, in the order they were passed.
+     * @return A read-only list of names.
+     */
+    public @Nonnull List<String> getParameterNames() {
+        return Collections.unmodifiableList(Arrays.asList(parameterNames));
+    }
+
+    /**
+     * The class of an argument.
+     * @param index The index of the argument.
+     * @return The class of the value, or null if the value was null.
+     */
+    public @Nullable Class getParameterType(int index) {
+        return parameterTypes[index];
+    }
+
+    /**
+     * The time spent finding the method, including the resolution cache, or 0 if the method was already bound.
+     * @return The resolution time in nanoseconds.
+     */
+    public long getResolutionNanos() {
+        return resolutionNanos;
+    }
+
+    /**
+     * The time spent binding the arguments and calling the method.
+     * @return The execution time in nanoseconds.
+     */
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    /**
+     * The total time of the invocation.
+     * @return The resolution and execution times in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return resolutionNanos + executionNanos;
+    }
+
+    /**
+     * Whether the invocation threw an InvokerException.
+     * @return true if it failed.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("SlowInvocation{")
+                .append(type.getName()).append('.').append(invocationName).append('(');
+        for (int i = 0; i < parameterNames.length; i++) {
+            if(i > 0){
+                builder.append(", ");
+            }
+            builder.append(parameterNames[i]).append(": ")
+                    .append(parameterTypes[i] == null ? "null" : parameterTypes[i].getName());
+        }
+        return builder.append(')')
+                .append(", resolutionNanos=").append(resolutionNanos)
+                .append(", executionNanos=").append(executionNanos)
+                .append(", failed=").append(failed)
+                .append(", thread='").append(threadName).append('\'')
+                .append(", timestamp=").append(timestamp)
+                .append('}')
+                .toString();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+import net.kebernet.invoker.runtime.impl.ParameterShape;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps traces of the most recent invocations that took at least a threshold, in a fixed size ring
+ * buffer. Each trace splits the time between resolving the method and executing it, and records the
+ * shape of the arguments but not their values. Install it with
+ * {@link net.kebernet.invoker.runtime.InvokerOptions.Builder#slowInvocationSampler(SlowInvocationSampler)}.
+ * <p>
+ * Recording is lock-free, and invocations under the threshold cost a comparison. Each trace carries
+ * its sequence number, so a reader only returns the trace recorded for each position in the buffer and
+ * never an older one a writer has not replaced yet.
+ * </p>
+ */
+public class SlowInvocationSampler {
+
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowInvocation> ring;
+    private final AtomicLong recorded = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param threshold The shortest invocation to record.
+     * @param capacity The number of traces to keep.
+     */
+    public SlowInvocationSampler(@Nonnull Duration threshold, int capacity) {
+        if(capacity < 1){
+            throw new IllegalArgumentException("Capacity must be positive: "+capacity);
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.ring = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Whether an invocation is slow enough to record.
+     * @param nanos The total time of the invocation.
+     * @return true if the time is at or over the threshold.
+     */
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    /**
+     * Records an invocation if it is slow, overwriting the oldest trace once the buffer is full.
+     * @param type The type invoked on.
+     * @param invocationName The invocation name.
+     * @param shape The names and classes of the arguments.
+     * @param resolutionNanos The time spent resolving the method.
+     * @param executionNanos The time spent calling the method.
+     * @param failed Whether the invocation threw.
+     */
+    public void record(@Nonnull Class type, @Nonnull String invocationName, @Nonnull ParameterShape shape,
+                       long resolutionNanos, long executionNanos, boolean failed) {
+        if(!isSlow(resolutionNanos + executionNanos)){
+            return;
+        }
+        long sequence = recorded.getAndIncrement();
+        SlowInvocation trace = new SlowInvocation(sequence, type, invocationName, shape, resolutionNanos, executionNanos, failed);
+        int slot = (int) (sequence % ring.length());
+        SlowInvocation current;
+        do {
+            current = ring.get(slot);
+            // A writer from an earlier lap that is slower than this one must not replace its trace.
+            if(current != null && current.sequence > sequence){
+                return;
+            }
+        } while(!ring.compareAndSet(slot, current, trace));
+    }
+
+    /**
+     * The traces in the buffer, oldest first.
+     * @return A new list of traces.
+     */
+    public @Nonnull List<SlowInvocation> getSamples() {
+        long end = recorded.get();
+        long start = Math.max(0, end - ring.length());
+        List<SlowInvocation> samples = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            SlowInvocation trace = ring.get((int) (i % ring.length()));
+            // A slot can be empty or hold the previous lap's trace while this one is being written,
+            // and is empty after clear().
+            if(trace != null && trace.sequence == i){
+                samples.add(trace);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * The number of slow invocations recorded, including those no longer in the buffer.
+     * @return The count.
+     */
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    /**
+     * The threshold for recording an invocation.
+     * @return The threshold.
+     */
+    public @Nonnull Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    /**
+     * The number of traces kept.
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return ring.length();
+    }
+
+    /**
+     * Discards the traces in the buffer.
+     */
+    public void clear() {
+        for (int i = 0; i < ring.length(); i++) {
+            ring.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Introspection counters for one type, and the metrics for each of its invocation names.
+ */
+public final class TypeMetrics implements TypeMetricsMXBean {
+
+    private final Class type;
+    private final ConcurrentHashMap<String, InvocationMetrics> invocations = new ConcurrentHashMap<>();
+    private final Consumer<InvocationMetrics> onCreate;
+    private final Runnable onRead;
+    private final LongAdder unmatched = new LongAdder();
+    private final LongAdder introspections = new LongAdder();
+    private final LongAdder introspectionNanos = new LongAdder();
+    private volatile long lastIntrospectionNanos;
+
+    TypeMetrics(@Nonnull Class type, @Nonnull Consumer<InvocationMetrics> onCreate, @Nonnull Runnable onRead) {
+        this.type = type;
+        this.onCreate = onCreate;
+        this.onRead = onRead;
+    }
+
+    void introspected(long nanos) {
+        introspections.increment();
+        introspectionNanos.add(nanos);
+        lastIntrospectionNanos = nanos;
+    }
+
+    void unmatched() {
+        unmatched.increment();
+    }
+
+    @Nonnull InvocationMetrics invocation(@Nonnull String invocationName) {
+        InvocationMetrics metrics = invocations.get(invocationName);
+        if(metrics == null){
+            InvocationMetrics created = new InvocationMetrics(type, invocationName);
+            metrics = invocations.putIfAbsent(invocationName, created);
+            if(metrics == null){
+                onCreate.accept(created);
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * The type.
+     * @return The type.
+     */
+    public @Nonnull Class getType() {
+        return type;
+    }
+
+    /**
+     * The metrics for an invocation name.
+     * @param invocationName The invocation name.
+     * @return The metrics, or null if the name has not been resolved or invoked, or is not the name of
+     * one of the type's methods.
+     */
+    public @Nullable InvocationMetrics getInvocation(@Nonnull String invocationName) {
+        return invocations.get(invocationName);
+    }
+
+    /**
+     * The metrics for every invocation name that has been resolved to one of the type's methods, or invoked.
+     * @return A read-only view of the metrics.
+     */
+    public @Nonnull Collection<InvocationMetrics> getInvocations() {
+        return Collections.unmodifiableCollection(invocations.values());
+    }
+
+    @Override
+    public String getTypeName() {
+        return type.getName();
+    }
+
+    @Override
+    public long getIntrospectionCount() {
+        return introspections.sum();
+    }
+
+    @Override
+    public long getTotalIntrospectionNanos() {
+        return introspectionNanos.sum();
+    }
+
+    @Override
+    public long getLastIntrospectionNanos() {
+        return lastIntrospectionNanos;
+    }
+
+    @Override
+    public long getInvocationCount() {
+        onRead.run();
+        return invocations.values().stream().mapToLong(InvocationMetrics::getInvocationCount).sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        onRead.run();
+        return invocations.values().stream().mapToLong(InvocationMetrics::getErrorCount).sum();
+    }
+
+    @Override
+    public long getUnmatchedCount() {
+        onRead.run();
+        return unmatched.sum();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("TypeMetrics{")
+                .append("type=").append(type.getName())
+                .append(", introspections=").append(getIntrospectionCount())
+                .append(", unmatched=").append(unmatched.sum())
+                .append(", invocations=").append(invocations.values())
+                .append('}')
+                .toString();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+/**
+ * The management interface of the metrics for one type.
+ */
+public interface TypeMetricsMXBean {
+
+    String getTypeName();
+
+    long getIntrospectionCount();
+
+    long getTotalIntrospectionNanos();
+
+    long getLastIntrospectionNanos();
+
+    long getInvocationCount();
+
+    long getErrorCount();
+
+    /**
+     * The number of resolutions of names that are not the name of any of the type's methods.
+     * @return The count.
+     */
+    long getUnmatchedCount();
+}
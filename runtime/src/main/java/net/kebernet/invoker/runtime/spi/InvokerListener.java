@@ -0,0 +1,100 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.spi;
+
+import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.impl.InvokableMethod;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Receives timings and outcomes from an Invoker, for metrics and tracing. A listener is installed
+ * with {@link net.kebernet.invoker.runtime.InvokerOptions.Builder#listener(InvokerListener)} and is
+ * called on the invoking thread, so implementations must be thread safe and should not block.
+ * Every method has an empty default implementation.
+ * <p>
+ * Each completion callback is preceded by a start callback on the same thread, with the calls
+ * properly nested, so that a tracer can time the operation itself. A failed resolution is reported to
+ * {@link #failed} with a null method and has no start callback of its own.
+ * </p>
+ */
+public interface InvokerListener {
+
+    /**
+     * Called before a type is introspected.
+     * @param type The type.
+     */
+    default void introspecting(@Nonnull Class type) {
+    }
+
+    /**
+     * Called after a type has been introspected.
+     * @param type The type.
+     * @param methodCount The number of invokable methods found.
+     * @param nanos The time taken to introspect the type.
+     */
+    default void introspected(@Nonnull Class type, int methodCount, long nanos) {
+    }
+
+    /**
+     * Called before an invocation name and parameter shape are resolved to a method.
+     * @param type The type the method is resolved on.
+     * @param invocationName The invocation name.
+     */
+    default void resolving(@Nonnull Class type, @Nonnull String invocationName) {
+    }
+
+    /**
+     * Called after an invocation name and parameter shape have been resolved to a method.
+     * @param type The type the method was resolved on.
+     * @param invocationName The invocation name.
+     * @param candidateCount The number of methods with the invocation name.
+     * @param cached Whether the resolution came from the resolution cache.
+     * @param matched Whether a method was found.
+     * @param nanos The time taken to resolve the method.
+     */
+    default void resolved(@Nonnull Class type, @Nonnull String invocationName, int candidateCount, boolean cached, boolean matched, long nanos) {
+    }
+
+    /**
+     * Called before a method is called.
+     * @param type The type the method is invoked on.
+     * @param method The method.
+     */
+    default void invoking(@Nonnull Class type, @Nonnull InvokableMethod method) {
+    }
+
+    /**
+     * Called after a method returned normally.
+     * @param type The type the method was invoked on.
+     * @param method The method, whose name is the invocation name.
+     * @param nanos The time taken by the call, excluding resolution.
+     */
+    default void invoked(@Nonnull Class type, @Nonnull InvokableMethod method, long nanos) {
+    }
+
+    /**
+     * Called when an invocation fails, either because no method matched or because the call threw.
+     * @param type The type the method was invoked on.
+     * @param invocationName The invocation name.
+     * @param method The method that was called, or null if no method matched.
+     * @param nanos The time taken by the resolution or the call that failed.
+     * @param exception The exception thrown to the caller.
+     */
+    default void failed(@Nonnull Class type, @Nonnull String invocationName, @Nullable InvokableMethod method, long nanos, @Nonnull InvokerException exception) {
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.spi;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * The metadata and a direct-call dispatcher for one invokable type, normally generated at compile time
+ * by the invoker annotation processor and located through {@link java.util.ServiceLoader}.
+ * <p>
+ * When an Invoker uses {@link net.kebernet.invoker.runtime.InvocationEngine#GENERATED} it builds the
+ * introspection data for a type from its registry, so no method or parameter reflection is needed to
+ * register or call the type.
+ * </p>
+ */
+public interface InvokerRegistry {
+
+    /**
+     * The type this registry describes.
+     * @return The concrete invokable type.
+     */
+    @Nonnull Class<?> getType();
+
+    /**
+     * The invokable methods on the type. The index of each method in this list is the index passed to
+     * {@link #invoke(int, Object, Object[])}.
+     * @return The method metadata.
+     */
+    @Nonnull List<MethodDescriptor> getMethods();
+
+    /**
+     * Calls a method directly.
+     * @param index The index of the method in {@link #getMethods()}.
+     * @param target The target object to invoke the method on. Ignored for static methods.
+     * @param arguments the arguments to pass to the method in declared parameter order.
+     * @return The return value of the method, or null for a void method.
+     * @throws Throwable Anything thrown by the method.
+     */
+    Object invoke(int index, @Nonnull Object target, @Nonnull Object[] arguments) throws Throwable;
+}
@@ -0,0 +1,138 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.spi;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * The resolved metadata for an invokable method: everything the runtime would otherwise read
+ * through reflection on the method, its parameters and their annotations.
+ */
+public class MethodDescriptor {
+    private final String invocationName;
+    private final String methodName;
+    private final Class<?> returnType;
+    private final Class<?>[] parameterTypes;
+    private final String[] parameterNames;
+    private final boolean[] requiredParameters;
+
+    /**
+     * Constructor
+     * @param invocationName The invocation name of the method.
+     * @param methodName The Java name of the method.
+     * @param returnType The declared return type of the method.
+     * @param parameterTypes The declared parameter types, in order.
+     * @param parameterNames The parameter names, in order.
+     * @param requiredParameters Whether each parameter is required, in order.
+     */
+    public MethodDescriptor(@Nonnull String invocationName,
+                            @Nonnull String methodName,
+                            @Nonnull Class<?> returnType,
+                            @Nonnull Class<?>[] parameterTypes,
+                            @Nonnull String[] parameterNames,
+                            @Nonnull boolean[] requiredParameters) {
+        if(parameterTypes.length != parameterNames.length || parameterTypes.length != requiredParameters.length){
+            throw new IllegalArgumentException("Parameter metadata lengths differ for "+methodName);
+        }
+        this.invocationName = invocationName;
+        this.methodName = methodName;
+        this.returnType = returnType;
+        this.parameterTypes = parameterTypes.clone();
+        this.parameterNames = parameterNames.clone();
+        this.requiredParameters = requiredParameters.clone();
+    }
+
+    /**
+     * The invocation name of the method.
+     * @return Invocation name
+     */
+    public @Nonnull String getInvocationName() {
+        return invocationName;
+    }
+
+    /**
+     * The Java name of the method.
+     * @return Method name
+     */
+    public @Nonnull String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * The declared return type of the method.
+     * @return The return type, Void.TYPE for void methods.
+     */
+    public @Nonnull Class<?> getReturnType() {
+        return returnType;
+    }
+
+    /**
+     * The number of parameters.
+     * @return The parameter count.
+     */
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    /**
+     * The declared type of a parameter.
+     * @param index The parameter index.
+     * @return The declared type.
+     */
+    public @Nonnull Class<?> getParameterType(int index) {
+        return parameterTypes[index];
+    }
+
+    /**
+     * The name of a parameter.
+     * @param index The parameter index.
+     * @return The parameter name.
+     */
+    public @Nonnull String getParameterName(int index) {
+        return parameterNames[index];
+    }
+
+    /**
+     * Whether a parameter is required.
+     * @param index The parameter index.
+     * @return The required status of the parameter.
+     */
+    public boolean isRequired(int index) {
+        return requiredParameters[index];
+    }
+
+    /**
+     * The declared parameter types.
+     * @return A copy of the parameter types.
+     */
+    public @Nonnull Class<?>[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("MethodDescriptor{")
+                .append("invocationName='").append(invocationName).append('\'')
+                .append(", methodName='").append(methodName).append('\'')
+                .append(", returnType=").append(returnType)
+                .append(", parameterTypes=").append(Arrays.toString(parameterTypes))
+                .append(", parameterNames=").append(Arrays.toString(parameterNames))
+                .append(", requiredParameters=").append(Arrays.toString(requiredParameters))
+                .append('}')
+                .toString();
+    }
+}
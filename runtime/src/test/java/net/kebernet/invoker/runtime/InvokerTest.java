@@ -15,20 +15,59 @@
  */
 package net.kebernet.invoker.runtime;
 
+import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.annotation.Parameter;
 import net.kebernet.invoker.runtime.annotations.AnnTestClass;
 import net.kebernet.invoker.runtime.annotations.GET;
 import net.kebernet.invoker.runtime.annotations.Name;
 import net.kebernet.invoker.runtime.annotations.POST;
 import net.kebernet.invoker.runtime.impl.AbstractMatchTest;
+import net.kebernet.invoker.runtime.impl.DefaultInvokableTest;
+import net.kebernet.invoker.runtime.impl.EnumTestClass;
+import net.kebernet.invoker.runtime.impl.IntrospectionData;
+import net.kebernet.invoker.runtime.impl.IntrospectionSnapshot;
 import net.kebernet.invoker.runtime.impl.MatchTestClass;
+import net.kebernet.invoker.runtime.metrics.InvokerMetrics;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * Created by rcooper on 10/14/16.
@@ -67,7 +106,652 @@ public class InvokerTest extends AbstractMatchTest {
         assertEquals("POST bar", post);
     }
 
-    private static String paramName(Parameter p){
+    @Test
+    public void concurrentColdLookup() throws Exception {
+        Invoker instance = new Invoker();
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<IntrospectionData>> lookups = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                lookups.add(executor.submit(() -> {
+                    start.await();
+                    String result = instance.invoke(new MatchTestClass(), "testMethod", values1);
+                    assertEquals("testMethod1", result);
+                    return instance.lookupType(MatchTestClass.class);
+                }));
+            }
+            start.countDown();
+            IntrospectionData first = lookups.get(0).get();
+            for (Future<IntrospectionData> lookup : lookups) {
+                assertSame(first, lookup.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void methodHandleEngine() throws InvokerException {
+        Invoker instance = new Invoker(InvokerOptions.builder()
+                .invocationEngine(InvocationEngine.METHOD_HANDLE)
+                .build());
+        MatchTestClass testClass = new MatchTestClass();
+        assertEquals("testMethod1", instance.invoke(testClass, "testMethod", values1));
+        assertEquals("testMethod2", instance.invoke(testClass, "testMethod", values2));
+        instance.lookupType(MatchTestClass.class).getMethods()
+                .forEach(m -> assertEquals(InvocationEngine.METHOD_HANDLE, m.getInvocationEngine()));
+
+        EngineTestClass target = new EngineTestClass();
+        assertEquals(Void.class, instance.invoke(target, "store", Arrays.asList(new ParameterValue("value", 42))));
+        assertEquals(42, target.stored);
+        assertEquals(43L, (long) instance.invoke(target, "increment", Arrays.asList(new ParameterValue("value", 42L))));
+        try {
+            instance.invoke(target, "fail", Arrays.asList(new ParameterValue("message", "boom")));
+        } catch (InvokerException e) {
+            assertTrue(e.getCause() instanceof InvocationTargetException);
+            assertEquals("boom", e.getCause().getCause().getMessage());
+            assertEquals("boom", e.getValues().get(0).getValue());
+            return;
+        }
+        fail("Expected an InvokerException");
+    }
+
+    @Test
+    public void dispatcher() throws InvokerException {
+        Invoker instance = new Invoker();
+        IntrospectionData data = instance.lookupType(EngineTestClass.class);
+        EngineTestClass target = new EngineTestClass();
+        int store = data.bestMatch("store", Arrays.asList(new ParameterValue("value", 1)))
+                .orElseThrow(RuntimeException::new).getId();
+        int increment = data.bestMatch("increment", Arrays.asList(new ParameterValue("value", 1L)))
+                .orElseThrow(RuntimeException::new).getId();
+        int fail = data.bestMatch("fail", Arrays.asList(new ParameterValue("message", "")))
+                .orElseThrow(RuntimeException::new).getId();
+        assertEquals(Void.class, data.getDispatcher().dispatch(store, target, new Object[]{7}));
+        assertEquals(7, target.stored);
+        assertEquals(8L, (long) data.getDispatcher().dispatch(increment, target, new Object[]{7L}));
+        try {
+            data.getDispatcher().dispatch(fail, target, new Object[]{"boom"});
+            fail("Expected an InvokerException");
+        } catch (InvokerException e) {
+            assertTrue(e.getCause() instanceof InvocationTargetException);
+            assertEquals("boom", e.getCause().getCause().getMessage());
+            assertEquals("fail", e.getMethodName());
+        }
+    }
+
+    @Test
+    public void boundInvocation() throws InvokerException {
+        Invoker instance = new Invoker();
+        BoundInvocation bound = instance.bind(MatchTestClass.class, "testMethod",
+                new String[]{"param3", "param1", "param2"}, new Class[]{String.class, String.class, String.class});
+        MatchTestClass testClass = new MatchTestClass();
+        assertEquals("testMethod1", bound.getMethod().getMethodName());
+        assertEquals("testMethod1", bound.invoke(testClass, "a", "b", "c"));
+        // A null value differs from the bound shape and is resolved again.
+        assertEquals("testMethod2", bound.invoke(testClass, null, "b", "c"));
+
+        BoundInvocation concat = instance.bind(EngineTestClass.class, "concat",
+                new String[]{"second", "first"}, new Class[]{String.class, String.class});
+        assertEquals("ab", concat.invoke(new EngineTestClass(), "b", "a"));
+        try {
+            instance.bind(EngineTestClass.class, "concat", new String[]{"first"}, new Class[]{Integer.class});
+            fail("Expected an InvokerException");
+        } catch (InvokerException e) {
+            assertEquals("concat", e.getMethodName());
+        }
+    }
+
+    @Test
+    public void argumentFrame() throws InvokerException {
+        Invoker instance = new Invoker();
+        EngineTestClass target = new EngineTestClass();
+        try(ArgumentFrame frame = ArgumentFrame.acquire()){
+            int second = frame.add("second", "b");
+            frame.add("first", "a");
+            assertEquals("ab", instance.invoke(target, "concat", frame));
+            frame.set(second, "c");
+            assertEquals("ac", instance.invoke(target, "concat", frame));
+            try(ArgumentFrame nested = ArgumentFrame.acquire()){
+                assertNotSame(frame, nested);
+                assertEquals(0, nested.size());
+            }
+        }
+        try(ArgumentFrame reused = ArgumentFrame.acquire()){
+            assertEquals(0, reused.size());
+        }
+        Map<String, Object> values = new HashMap<>();
+        values.put("first", "x");
+        values.put("second", "y");
+        assertEquals("xy", instance.invoke(target, "concat", values));
+    }
+
+    @Test
+    public void allocationFree() throws InvokerException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Invoker instance = new Invoker(InvokerOptions.builder()
+                .invocationEngine(InvocationEngine.METHOD_HANDLE)
+                .build());
+        instance.registerType(EngineTestClass.class);
+        EngineTestClass target = new EngineTestClass();
+        Integer value = 1000;
+        ArgumentFrame frame = new ArgumentFrame();
+        frame.add("value", value);
+        Map<String, Object> values = new HashMap<>();
+        values.put("value", value);
+        long threadId = Thread.currentThread().getId();
+        int calls = 100000;
+        for (int i = 0; i < 5 * calls; i++) {
+            instance.invoke(target, "store", frame);
+            instance.invoke(target, "store", values);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) {
+            instance.invoke(target, "store", frame);
+        }
+        long frameBytes = threads.getThreadAllocatedBytes(threadId) - before;
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) {
+            instance.invoke(target, "store", values);
+        }
+        long mapBytes = threads.getThreadAllocatedBytes(threadId) - before;
+        assertEquals(1000, target.stored);
+        // Allow for the constant cost of reading the counter itself.
+        assertTrue("Frame invocations allocated "+frameBytes+" bytes", frameBytes < calls);
+        assertTrue("Map invocations allocated "+mapBytes+" bytes", mapBytes < calls);
+    }
+
+    @Test
+    public void primitiveFrame() throws InvokerException {
+        EngineTestClass target = new EngineTestClass();
+        for(InvocationEngine engine : InvocationEngine.values()){
+            Invoker instance = new Invoker(InvokerOptions.builder()
+                    .invocationEngine(engine)
+                    .build());
+            try(ArgumentFrame frame = ArgumentFrame.acquire()){
+                int slot = frame.addLong("value", 41L);
+                assertEquals(Long.class, frame.getType(slot));
+                assertEquals(41L, frame.getValue(slot));
+                assertEquals(42L, (long) instance.<Long>invoke(target, "increment", frame));
+            }
+            try(ArgumentFrame frame = ArgumentFrame.acquire()){
+                int slot = frame.addInt("value", 7);
+                instance.invoke(target, "store", frame);
+                assertEquals(7, target.stored);
+                frame.setInt(slot, 8);
+                instance.invoke(target, "store", frame);
+                assertEquals(8, target.stored);
+            }
+        }
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        Invoker instance = new Invoker(InvokerOptions.builder()
+                .invocationEngine(InvocationEngine.METHOD_HANDLE)
+                .build());
+        ArgumentFrame frame = new ArgumentFrame();
+        int slot = frame.addInt("value", 0);
+        int calls = 100000;
+        for (int i = 0; i < 5 * calls; i++) {
+            frame.setInt(slot, 1000 + i);
+            instance.invoke(target, "store", frame);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) {
+            frame.setInt(slot, 1000 + i);
+            instance.invoke(target, "store", frame);
+        }
+        long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+        assertEquals(1000 + calls - 1, target.stored);
+        // Boxing each value would allocate 16 bytes per call.
+        assertTrue("Primitive invocations allocated "+bytes+" bytes", bytes < calls);
+    }
+
+    @Test
+    public void typedResults() throws InvokerException {
+        TypedTestClass target = new TypedTestClass();
+        List<ParameterValue> values = Collections.singletonList(new ParameterValue("value", "abc"));
+        for(InvocationEngine engine : InvocationEngine.values()){
+            Invoker instance = new Invoker(InvokerOptions.builder()
+                    .invocationEngine(engine)
+                    .build());
+            assertEquals(3, instance.invokeInt(target, "length", values));
+            assertEquals(3L, instance.invokeLong(target, "length", values));
+            assertEquals(3d, instance.invokeDouble(target, "length", values), 0d);
+            assertEquals('a', instance.invokeInt(target, "first", values));
+            assertEquals(3L, instance.invokeLong(target, "boxed", values));
+            assertFalse(instance.invokeBoolean(target, "empty", values));
+            instance.invokeVoid(target, "length", values);
+            try {
+                instance.invokeInt(target, "wide", values);
+                fail("A long does not narrow to an int");
+            } catch (InvokerException e) {
+                assertTrue(e.getMessage().contains("not int"));
+            }
+            try {
+                instance.invokeBoolean(target, "length", values);
+                fail("An int is not a boolean");
+            } catch (InvokerException e) {
+                // expected
+            }
+            try(ArgumentFrame frame = ArgumentFrame.acquire()){
+                frame.addLong("value", 41L);
+                assertEquals(42L, instance.invokeLong(new EngineTestClass(), "increment", frame));
+            }
+            BoundInvocation bound = instance.bind(TypedTestClass.class, "length", new String[]{"value"}, new Class[]{String.class});
+            assertEquals(2, bound.invokeInt(target, "ab"));
+            BoundInvocation empty = instance.bind(TypedTestClass.class, "empty", new String[]{"value"}, new Class[]{String.class});
+            assertTrue(empty.invokeBoolean(target, ""));
+        }
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        Invoker instance = new Invoker(InvokerOptions.builder()
+                .invocationEngine(InvocationEngine.METHOD_HANDLE)
+                .build());
+        EngineTestClass engineTarget = new EngineTestClass();
+        ArgumentFrame frame = new ArgumentFrame();
+        int slot = frame.addLong("value", 0);
+        int calls = 100000;
+        long sum = 0;
+        for (int i = 0; i < 5 * calls; i++) {
+            frame.setLong(slot, 1000 + i);
+            sum += instance.invokeLong(engineTarget, "increment", frame);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) {
+            frame.setLong(slot, 1000 + i);
+            sum += instance.invokeLong(engineTarget, "increment", frame);
+        }
+        long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(sum > 0);
+        // Boxing each result would allocate 24 bytes per call.
+        assertTrue("Typed invocations allocated "+bytes+" bytes", bytes < calls);
+    }
+
+    @Test
+    public void bulkRegistration() throws Exception {
+        Invoker instance = new Invoker();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            RegistrationReport report = instance.registerTypes(
+                    Arrays.asList(EngineTestClass.class, TypedTestClass.class, Object.class), pool);
+            assertEquals(Arrays.asList(EngineTestClass.class, TypedTestClass.class), report.getRegistered());
+            assertFalse(report.isComplete());
+            assertTrue(report.getFailures().get(Object.class.getName()) instanceof IllegalArgumentException);
+        } finally {
+            pool.shutdown();
+        }
+
+        RegistrationReport scanned = instance.registerPackage("net.kebernet.invoker.runtime.impl", getClass().getClassLoader());
+        assertTrue(scanned.toString(), scanned.isComplete());
+        assertTrue(scanned.getRegistered().contains(MatchTestClass.class));
+        assertTrue(scanned.getSkipped().contains(IntrospectionData.class));
+        assertFalse(scanned.getRegistered().contains(AbstractMatchTest.class));
+
+        RegistrationReport listed = instance.registerTypeList("net/kebernet/invoker/runtime/handlers.txt", getClass().getClassLoader());
+        assertEquals(Arrays.asList(EngineTestClass.class, TypedTestClass.class), listed.getRegistered());
+        assertEquals(Collections.singleton("net.kebernet.invoker.runtime.MissingHandler"), listed.getFailures().keySet());
+        assertTrue(listed.getFailures().values().iterator().next() instanceof ClassNotFoundException);
+        assertEquals(3, instance.invokeInt(new TypedTestClass(), "length",
+                Collections.singletonList(new ParameterValue("value", "abc"))));
+    }
+
+    @Test
+    public void snapshot() throws Exception {
+        Path file = Files.createTempFile("invoker", ".snapshot");
+        try {
+            Invoker original = new Invoker();
+            original.registerTypes(Arrays.asList(EngineTestClass.class, TypedTestClass.class));
+            assertEquals(2, original.saveSnapshot(file));
+
+            Invoker restored = new Invoker();
+            RegistrationReport report = restored.loadSnapshot(file, getClass().getClassLoader());
+            assertTrue(report.toString(), report.isComplete());
+            assertEquals(2, report.getRegistered().size());
+            assertTrue(report.getRebuilt().isEmpty());
+            IntrospectionData data = restored.lookupType(TypedTestClass.class);
+            assertEquals(InvocationEngine.GENERATED, data.getMethods().iterator().next().getInvocationEngine());
+            assertEquals(describe(original.lookupType(TypedTestClass.class)), describe(data));
+            assertEquals(3, restored.invokeInt(new TypedTestClass(), "length",
+                    Collections.singletonList(new ParameterValue("value", "abc"))));
+            assertEquals("ab", restored.invoke(new EngineTestClass(), "concat", Arrays.asList(
+                    new ParameterValue("first", "a"),
+                    new ParameterValue("second", "b"))));
+
+            // A changed checksum means the class changed since the snapshot, so it is introspected again.
+            byte[] bytes = Files.readAllBytes(file);
+            byte[] checksum = ByteBuffer.allocate(8).putLong(IntrospectionSnapshot.checksum(TypedTestClass.class)).array();
+            for (int i = 0; i + checksum.length <= bytes.length; i++) {
+                if(Arrays.equals(checksum, Arrays.copyOfRange(bytes, i, i + checksum.length))){
+                    bytes[i + 7] ^= 1;
+                }
+            }
+            Files.write(file, bytes);
+            RegistrationReport stale = new Invoker().loadSnapshot(file, getClass().getClassLoader());
+            assertEquals(2, stale.getRegistered().size());
+            assertEquals(Collections.singletonList(TypedTestClass.class), stale.getRebuilt());
+
+            Files.write(file, new byte[]{1, 2, 3});
+            try {
+                restored.loadSnapshot(file, getClass().getClassLoader());
+                fail("Should have rejected the file");
+            } catch (IOException e) {
+                // expected
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<String> describe(IntrospectionData data) {
+        List<String> methods = new ArrayList<>();
+        data.getMethods().forEach(m -> m.getParameters().forEach(p -> methods.add(
+                m.getName() + "." + m.getMethodName() + ":" + m.getReturnType().getName() + "(" +
+                p.getSlot() + " " + p.getName() + " " + p.getType().getName() + " " + p.isRequired() + ")")));
+        return methods;
+    }
+
+    @Test
+    public void classUnloading() throws Exception {
+        Invoker instance = new Invoker();
+        IsolatingClassLoader loader = new IsolatingClassLoader(MatchTestClass.class.getName());
+        Class isolated = loader.loadClass(MatchTestClass.class.getName());
+        assertNotSame(MatchTestClass.class, isolated);
+        instance.registerType(isolated);
+        instance.registerType(MatchTestClass.class);
+        assertNotSame(instance.lookupType(MatchTestClass.class), instance.lookupType(isolated));
+        assertEquals(1, instance.evict(loader));
+        assertEquals(0, instance.evict(loader));
+        assertNotNull(instance.lookupType(MatchTestClass.class));
+
+        // A loader that is never evicted can still be collected.
+        WeakReference<ClassLoader> collected = registerIsolated(instance);
+        for (int i = 0; i < 20 && collected.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull(collected.get());
+        assertEquals("ab", instance.invoke(new EngineTestClass(), "concat", Arrays.asList(
+                new ParameterValue("first", "a"),
+                new ParameterValue("second", "b"))));
+    }
+
+    @Test
+    public void classUnloadingWithCoercion() throws Exception {
+        Invoker instance = new Invoker(InvokerOptions.builder()
+                .coercion(TypeCoercion.defaults())
+                .build());
+        // The shared default coercion must not keep an evicted loader's enum from being unloaded.
+        WeakReference<ClassLoader> collected = invokeIsolated(instance);
+        for (int i = 0; i < 20 && collected.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull(collected.get());
+    }
+
+    @Test
+    public void classUnloadingWithMetrics() throws Exception {
+        InvokerMetrics metrics = new InvokerMetrics();
+        Invoker instance = new Invoker(InvokerOptions.builder()
+                .listener(metrics)
+                .build());
+        WeakReference<ClassLoader> collected = registerIsolated(instance);
+        for (int i = 0; i < 20 && collected.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull(collected.get());
+        assertTrue(metrics.getTypes().isEmpty());
+    }
+
+    @Test
+    public void isolatedCoercionUnloading() throws Exception {
+        // A coercion, and the rules, defined by a web application must not stay reachable from String.
+        WeakReference<ClassLoader> collected = coerceIsolated();
+        for (int i = 0; i < 20 && collected.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull(collected.get());
+    }
+
+    private static WeakReference<ClassLoader> coerceIsolated() throws Exception {
+        IsolatingClassLoader loader = new IsolatingClassLoader(IsolatedCoercion.class.getName(), TypeCoercion.class.getName());
+        Class isolated = loader.loadClass(IsolatedCoercion.class.getName());
+        assertNotSame(IsolatedCoercion.class, isolated);
+        Object converted = isolated.getMethod("convert").invoke(null);
+        assertEquals(Duration.ofSeconds(2), ((Duration[]) converted)[0]);
+        return new WeakReference<>(loader);
+    }
+
+    private static WeakReference<ClassLoader> invokeIsolated(Invoker instance) throws Exception {
+        IsolatingClassLoader loader = new IsolatingClassLoader(EnumTestClass.class.getName());
+        Class isolated = loader.loadClass(EnumTestClass.class.getName());
+        assertNotSame(EnumTestClass.class, isolated);
+        assertEquals("FAST", instance.invoke(isolated.newInstance(), "run",
+                Collections.singletonList(new ParameterValue("speed", "FAST"))));
+        assertEquals(1, instance.evict(loader));
+        return new WeakReference<>(loader);
+    }
+
+    private static WeakReference<ClassLoader> registerIsolated(Invoker instance) throws Exception {
+        IsolatingClassLoader loader = new IsolatingClassLoader(MatchTestClass.class.getName());
+        Class isolated = loader.loadClass(MatchTestClass.class.getName());
+        assertEquals("testMethod4", instance.invoke(isolated.newInstance(), "testMethod", Collections.emptyList()));
+        return new WeakReference<>(loader);
+    }
+
+    /**
+     * Loads some classes and their nested classes itself, as a web application class loader would, and
+     * delegates everything else.
+     */
+    private static class IsolatingClassLoader extends ClassLoader {
+        private final List<String> isolated;
+
+        private IsolatingClassLoader(String... isolated) {
+            super(InvokerTest.class.getClassLoader());
+            this.isolated = Arrays.asList(isolated);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if(isolated.stream().noneMatch(i -> name.equals(i) || name.startsWith(i + "$"))){
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if(loaded == null){
+                    try(InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")){
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[4096];
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            out.write(buffer, 0, read);
+                        }
+                        loaded = defineClass(name, out.toByteArray(), 0, out.size());
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return loaded;
+            }
+        }
+    }
+
+    @Test
+    public void invokeAsync() throws Exception {
+        Invoker instance = new Invoker();
+        EngineTestClass target = new EngineTestClass();
+        List<ParameterValue> values = Arrays.asList(
+                new ParameterValue("first", "a"),
+                new ParameterValue("second", "b"));
+        assertEquals("ab", instance.<String>invokeAsync(target, "concat", values).get(5, TimeUnit.SECONDS));
+        Map<String, Object> map = new HashMap<>();
+        map.put("first", "c");
+        map.put("second", "d");
+        assertEquals("cd", instance.<String>invokeAsync(target, "concat", map).get(5, TimeUnit.SECONDS));
+
+        AtomicInteger executed = new AtomicInteger();
+        Executor counting = command -> {
+            executed.incrementAndGet();
+            command.run();
+        };
+        assertEquals("ab", instance.<String>invokeAsync(target, "concat", values, counting).get());
+        assertEquals(1, executed.get());
+
+        // A method returning a CompletionStage is passed through without using the executor.
+        AsyncTestClass async = new AsyncTestClass();
+        CompletableFuture<String> passed = instance.invokeAsync(async, "later",
+                Collections.singletonList(new ParameterValue("value", "x")), counting);
+        assertEquals(1, executed.get());
+        assertFalse(passed.isDone());
+        async.pending.complete("done");
+        assertEquals("done x", passed.get());
+
+        CompletableFuture<Object> failed = instance.invokeAsync(target, "fail",
+                Collections.singletonList(new ParameterValue("message", "boom")), counting);
+        try {
+            failed.get();
+            fail("Expected an ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InvokerException);
+            assertEquals("boom", e.getCause().getCause().getCause().getMessage());
+        }
+        CompletableFuture<Object> unresolved = instance.invokeAsync(target, "missing", values, counting);
+        assertTrue(unresolved.isCompletedExceptionally());
+        assertEquals(2, executed.get());
+    }
+
+    @Test
+    public void invokeAll() {
+        Invoker instance = new Invoker();
+        EngineTestClass target = new EngineTestClass();
+        List<InvocationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            requests.add(new InvocationRequest(target, "concat", Arrays.asList(
+                    new ParameterValue("first", "a"),
+                    new ParameterValue("second", Integer.toString(i)))));
+        }
+        requests.set(100, new InvocationRequest(target, "fail",
+                Collections.singletonList(new ParameterValue("message", "boom"))));
+        requests.set(200, new InvocationRequest(target, "missing",
+                Collections.singletonList(new ParameterValue("message", "boom"))));
+        requests.set(300, new InvocationRequest(target, "increment",
+                Collections.singletonList(new ParameterValue("value", 41L))));
+        requests.set(400, new InvocationRequest(new DefaultInvokableTest.NoneInvokable(), "testMethod",
+                Collections.singletonList(new ParameterValue("hello", "boom"))));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<InvocationResult<Object>> results = instance.invokeAll(requests, pool);
+            assertEquals(requests.size(), results.size());
+            for (int i = 0; i < results.size(); i++) {
+                InvocationResult<Object> result = results.get(i);
+                if(i == 100){
+                    assertFalse(result.isSuccess());
+                    assertEquals("boom", result.getError().getCause().getCause().getMessage());
+                } else if(i == 200){
+                    assertFalse(result.isSuccess());
+                    assertTrue(result.getError().getMessage().contains("missing"));
+                    assertNull(result.getError().getCause());
+                } else if(i == 300){
+                    assertEquals(42L, result.get());
+                } else if(i == 400){
+                    // The type has no invokable methods, and the reason is kept as the cause.
+                    assertFalse(result.isSuccess());
+                    assertTrue(result.getError().getCause() instanceof IllegalArgumentException);
+                } else {
+                    assertEquals("a" + i, result.get());
+                }
+            }
+        } catch (InvokerException e) {
+            throw new AssertionError(e);
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(instance.invokeAll(Collections.emptyList()).isEmpty());
+    }
+
+    public static class AsyncTestClass {
+        private final CompletableFuture<String> pending = new CompletableFuture<>();
+
+        @Invokable
+        public CompletionStage<String> later(@Parameter("value") String value) {
+            return pending.thenApply(result -> result + " " + value);
+        }
+    }
+
+    public static class TypedTestClass {
+
+        @Invokable
+        public int length(@Parameter("value") String value) {
+            return value.length();
+        }
+
+        @Invokable
+        public char first(@Parameter("value") String value) {
+            return value.charAt(0);
+        }
+
+        @Invokable
+        public Integer boxed(@Parameter("value") String value) {
+            return value.length();
+        }
+
+        @Invokable
+        public long wide(@Parameter("value") String value) {
+            return value.length();
+        }
+
+        @Invokable
+        public boolean empty(@Parameter("value") String value) {
+            return value.isEmpty();
+        }
+    }
+
+    public static class EngineTestClass {
+        private int stored;
+
+        @Invokable
+        public String concat(@Parameter("first") String first, @Parameter("second") String second) {
+            return first + second;
+        }
+
+        @Invokable
+        public void store(@Parameter("value") int value) {
+            this.stored = value;
+        }
+
+        @Invokable
+        public static long increment(@Parameter("value") long value) {
+            return value + 1;
+        }
+
+        @Invokable
+        public String fail(@Parameter("message") String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static String paramName(java.lang.reflect.Parameter p){
         Name n = p.getAnnotation(Name.class);
         return n.value();
     }
@@ -0,0 +1,35 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Builds a coercion with a custom rule and converts values with it, so that a test can load this
+ * class and TypeCoercion in their own class loader, as a web application would.
+ */
+public class IsolatedCoercion {
+
+    public static Object convert() {
+        TypeCoercion coercion = TypeCoercion.builder()
+                .register(String.class, Duration.class, 1, Duration::parse)
+                .build();
+        coercion.costOf(String.class, Integer.class);
+        coercion.coerce("PT1S", Duration.class);
+        return coercion.coerce(Collections.singletonList("PT2S"), Duration[].class);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime;
+
+import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.annotation.Parameter;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TypeCoercionTest {
+
+    @Test
+    public void conversions() {
+        TypeCoercion coercion = TypeCoercion.defaults();
+        assertEquals(42, coercion.coerce("42", Integer.TYPE));
+        assertEquals(42L, coercion.coerce(42, Long.class));
+        assertEquals(2.5d, coercion.coerce("2.5", Double.TYPE));
+        assertEquals(new BigDecimal("1.10"), coercion.coerce("1.10", BigDecimal.class));
+        assertEquals(Boolean.TRUE, coercion.coerce("TRUE", Boolean.TYPE));
+        assertEquals('x', coercion.coerce("x", Character.TYPE));
+        assertEquals(97, coercion.coerce('a', Integer.TYPE));
+        assertEquals(TimeUnit.SECONDS, coercion.coerce("SECONDS", TimeUnit.class));
+        assertEquals(Arrays.asList(1, 2), coercion.coerce(new int[]{1, 2}, List.class));
+        assertArrayEquals(new Integer[]{1, 2}, (Integer[]) coercion.coerce(Arrays.asList("1", "2"), Integer[].class));
+        assertTrue(coercion.coerce(Arrays.asList("a", "a"), Set.class) instanceof Set);
+        try {
+            coercion.coerce("yes", Boolean.class);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            coercion.coerce(1L, Integer.class);
+            fail("Narrowing is not a coercion");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void costs() {
+        TypeCoercion coercion = TypeCoercion.defaults();
+        assertEquals(0, coercion.costOf(Integer.class, Integer.TYPE));
+        assertEquals(0, coercion.costOf(String.class, CharSequence.class));
+        assertEquals(TypeCoercion.WIDENING_COST, coercion.costOf(Integer.class, Long.class));
+        assertEquals(3 * TypeCoercion.WIDENING_COST, coercion.costOf(Integer.class, Double.TYPE));
+        assertEquals(TypeCoercion.PARSE_COST, coercion.costOf(String.class, Long.class));
+        assertEquals(-1, coercion.costOf(Double.class, Integer.class));
+        // Compiled once per pair.
+        assertSame(coercion.find(String.class, Integer.class), coercion.find(String.class, Integer.class));
+    }
+
+    @Test
+    public void chains() {
+        TypeCoercion coercion = TypeCoercion.builder()
+                .register(Integer.class, LocalDate.class, 3, days -> LocalDate.ofEpochDay(days))
+                .build();
+        assertEquals(LocalDate.ofEpochDay(10), coercion.coerce(10, LocalDate.class));
+        assertEquals(LocalDate.ofEpochDay(10), coercion.coerce("10", LocalDate.class));
+        assertEquals(TypeCoercion.PARSE_COST + 3, coercion.costOf(String.class, LocalDate.class));
+    }
+
+    @Test
+    public void invoke() throws InvokerException {
+        CoercionTestClass target = new CoercionTestClass();
+        Map<String, Object> values = new HashMap<>();
+        values.put("count", "3");
+        values.put("unit", "MINUTES");
+        try {
+            new Invoker().invoke(target, "repeat", values);
+            fail("Coercion is off by default");
+        } catch (InvokerException e) {
+            // expected
+        }
+        Invoker invoker = new Invoker(InvokerOptions.builder()
+                .coercion(TypeCoercion.defaults())
+                .build());
+        assertEquals("3 MINUTES", invoker.invoke(target, "repeat", values));
+        // An exact match is preferred over a conversion.
+        assertEquals("int 3", invoker.invoke(target, "pick", Collections.singletonList(new ParameterValue("value", 3))));
+        assertEquals("long 3", invoker.invoke(target, "pick", Collections.singletonList(new ParameterValue("value", 3L))));
+        // Widening is cheaper than parsing, so a short goes to the int overload.
+        assertEquals("int 3", invoker.invoke(target, "pick", Collections.singletonList(new ParameterValue("value", (short) 3))));
+        values.put("count", "three");
+        try {
+            invoker.invoke(target, "repeat", values);
+            fail("Expected an InvokerException");
+        } catch (InvokerException e) {
+            assertTrue(e.getCause() instanceof NumberFormatException);
+        }
+    }
+
+    public static class CoercionTestClass {
+
+        @Invokable
+        public String repeat(@Parameter("count") int count, @Parameter("unit") TimeUnit unit) {
+            return count + " " + unit;
+        }
+
+        @Invokable
+        public String pick(@Parameter("value") int value) {
+            return "int " + value;
+        }
+
+        @Invokable(invocationName = "pick")
+        public String pickLong(@Parameter("value") long value) {
+            return "long " + value;
+        }
+    }
+}
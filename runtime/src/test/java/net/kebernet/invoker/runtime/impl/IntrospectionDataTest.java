@@ -15,16 +15,29 @@
  */
 package net.kebernet.invoker.runtime.impl;
 
+import net.kebernet.invoker.annotation.Parameter;
+import net.kebernet.invoker.runtime.InvocationEngine;
+import net.kebernet.invoker.runtime.InvokerOptions;
 import net.kebernet.invoker.runtime.ParameterValue;
+import net.kebernet.invoker.runtime.TypeCoercion;
 import org.junit.Test;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by rcooper on 10/14/16.
@@ -69,6 +82,61 @@ public class IntrospectionDataTest extends AbstractMatchTest {
         assertEquals("testMethod3", instance.bestMatch("testMethod", values3).orElseThrow(RuntimeException::new).getNativeMethod().getName());
     }
 
+    @Test
+    public void methodsByName(){
+        IntrospectionData instance = new IntrospectionData(OverloadWithDifferentLength.class, Optional.empty(), Optional.empty());
+        assertEquals(3, instance.getMethods("testMethod").size());
+        assertTrue(instance.getMethods("testMethod1").isEmpty());
+        assertFalse(instance.bestMatch("testMethod1", Collections.singletonList(new ParameterValue("param1", "value"))).isPresent());
+        // A value of the wrong type is not a match even for an optional parameter.
+        assertFalse(instance.bestMatch("testMethod", Arrays.asList(
+                new ParameterValue("param1", "value"),
+                new ParameterValue("param2", 1))).isPresent());
+    }
+
+    @Test
+    public void requiredParametersBeforeDistance(){
+        // Scored overloads, since coercion disables the compiled decision list.
+        IntrospectionData instance = new IntrospectionData(RequiredPriorityTestClass.class, InvokerOptions.builder()
+                .coercion(TypeCoercion.defaults())
+                .build());
+        List<ParameterValue> p1 = Collections.singletonList(new ParameterValue("p1", "value"));
+        assertEquals("strict", instance.bestMatch("testMethod", p1).orElseThrow(RuntimeException::new).getMethodName());
+        // An exact match still wins over more required parameters.
+        assertEquals("optional", instance.bestMatch("testMethod", Arrays.asList(
+                new ParameterValue("p1", "value"),
+                new ParameterValue("p2", "value"))).orElseThrow(RuntimeException::new).getMethodName());
+        List<InvokableMethod> sorted = new ArrayList<>(instance.getMethods());
+        sorted.sort(new InvokableMethod.Comparator("testMethod", p1));
+        assertEquals("strict", sorted.get(0).getMethodName());
+    }
+
+    @Test
+    public void resolutionCache(){
+        IntrospectionData instance = new IntrospectionData(OverloadWithDifferentLength.class, InvokerOptions.builder()
+                .resolutionCacheSize(16)
+                .build());
+        ShapeCache<Optional<InvokableMethod>> cache = instance.getResolutionCache();
+        assertEquals(16, cache.getCapacity());
+        List<ParameterValue> values = Collections.singletonList(new ParameterValue("param1", "value"));
+        List<ParameterValue> wrongType = Collections.singletonList(new ParameterValue("param1", 1));
+        Optional<InvokableMethod> first = instance.bestMatch("testMethod", values);
+        assertSame(first, instance.bestMatch("testMethod", Collections.singletonList(new ParameterValue("param1", "other"))));
+        assertFalse(instance.bestMatch("testMethod", wrongType).isPresent());
+        assertFalse(instance.bestMatch("testMethod", wrongType).isPresent());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        instance.clearCaches();
+        assertEquals(first, instance.bestMatch("testMethod", values));
+        assertEquals(3, cache.getMissCount());
+
+        IntrospectionData uncached = new IntrospectionData(OverloadWithDifferentLength.class, InvokerOptions.builder()
+                .resolutionCacheSize(0)
+                .build());
+        assertNull(uncached.getResolutionCache());
+        assertEquals(first, uncached.bestMatch("testMethod", values));
+    }
+
     @Test
     public void simpleDefaultInvokable(){
         IntrospectionData data = new IntrospectionData(DefaultInvokableTest.AllInvokable.class, Optional.empty(), Optional.empty());
@@ -81,6 +149,78 @@ public class IntrospectionDataTest extends AbstractMatchTest {
 
     }
 
+    @Test
+    public void dispatcher() throws Exception {
+        IntrospectionData instance = new IntrospectionData(MatchTestClass.class, Optional.empty(), Optional.empty());
+        Dispatcher dispatcher = instance.getDispatcher();
+        assertSame(dispatcher, instance.getDispatcher());
+        assertEquals(4, dispatcher.size());
+        MatchTestClass target = new MatchTestClass();
+        Object[] arguments = new Object[]{"a", "b", "c"};
+        for (InvokableMethod method : instance.getMethods()) {
+            String expected = method.invoke(target, arguments);
+            assertEquals(expected, dispatcher.dispatch(method.getId(), target, arguments));
+        }
+
+        // Reflective calls go through the table, and are bound to a handle once a method is used enough.
+        InvokableMethod method = instance.getMethods().iterator().next();
+        assertEquals(InvocationEngine.REFLECTION, method.getInvocationEngine());
+        // It has been called twice above, so this leaves it one call short of the threshold.
+        for (int i = 3; i < Dispatcher.INFLATION_THRESHOLD; i++) {
+            method.invoke(target, arguments);
+        }
+        assertFalse(dispatcher.isBound(method.getId()));
+        String expected = method.invoke(target, arguments);
+        assertTrue(dispatcher.isBound(method.getId()));
+        assertEquals(expected, method.invoke(target, arguments));
+        assertEquals(expected, dispatcher.dispatch(method.getId(), target, arguments));
+    }
+
+    @Test
+    public void lazyIntrospection() throws Exception {
+        AtomicInteger parameters = new AtomicInteger();
+        IntrospectionData instance = new IntrospectionData(MatchTestClass.class, InvokerOptions.builder()
+                .lazyIntrospection(true)
+                .findInvocationName(Method::getName)
+                .findParameterName(p -> {
+                    parameters.incrementAndGet();
+                    return p.getAnnotation(Parameter.class).value();
+                })
+                .build());
+        assertEquals(4, instance.getMethodCount());
+        assertEquals(0, parameters.get());
+
+        List<ParameterValue> values = Arrays.asList(new ParameterValue("param1", "value"), new ParameterValue("param2", "value"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Optional<InvokableMethod>>> resolved = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resolved.add(executor.submit(() -> instance.bestMatch("testMethod3", values)));
+            }
+            InvokableMethod method = resolved.get(0).get().orElseThrow(RuntimeException::new);
+            for(Future<Optional<InvokableMethod>> future : resolved){
+                assertSame(method, future.get().orElseThrow(RuntimeException::new));
+            }
+            assertEquals("testMethod3", method.getNativeMethod().getName());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(3, parameters.get());
+        assertFalse(instance.bestMatch("missing", values).isPresent());
+        assertEquals(3, parameters.get());
+
+        IntrospectionData eager = new IntrospectionData(MatchTestClass.class, InvokerOptions.builder()
+                .findInvocationName(Method::getName)
+                .build());
+        List<InvokableMethod> all = new ArrayList<>(instance.getMethods());
+        assertEquals(new ArrayList<>(eager.getMethods()), all);
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i, all.get(i).getId());
+        }
+        assertEquals(4, instance.getDispatcher().size());
+        assertEquals(12, parameters.get());
+    }
+
     @Test(expected = RuntimeException.class)
     public void noneInvokable() {
         new IntrospectionData(DefaultInvokableTest.NoneInvokable.class, Optional.empty(), Optional.empty());
@@ -15,8 +15,12 @@
  */
 package net.kebernet.invoker.runtime.impl;
 
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.ParameterValue;
+import net.kebernet.invoker.runtime.TypeCoercion;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -74,6 +78,68 @@ public class InvokableMethodTest extends AbstractMatchTest {
         System.out.println(firstRun+" vs "+secondRun);
     }
 
+    @Test
+    public void testMasks(){
+        for(InvokerOptions options : Arrays.asList(InvokerOptions.defaults(),
+                InvokerOptions.builder().coercion(TypeCoercion.defaults()).build())){
+            List<InvokableMethod> masked = new ArrayList<>(new IntrospectionData(VerbTestClass.class, options).getMethods());
+            List<InvokableMethod> byName = new ArrayList<>(new IntrospectionData(VerbTestClass.class, options).getMethods());
+            for(ParameterShape shape : OverloadsTest.shapes(OverloadsTest.names(masked))){
+                for (int i = 0; i < masked.size(); i++) {
+                    assertEquals(masked.get(i).getMethodName() + " " + OverloadsTest.describe(shape),
+                            byName.get(i).matchValuesByName(shape), masked.get(i).matchShape("GET", shape));
+                }
+            }
+        }
+        // A repeated name is matched by name, where the last value wins.
+        assertEquals(0, testMethod1.matchShape("testMethod", ParameterShape.of(
+                new String[]{"param1", "param2", "param3", "param1"},
+                new Class[]{Integer.class, String.class, String.class, String.class})));
+    }
+
+    @Test
+    public void testDistance(){
+        List<ParameterValue> twoValues = Arrays.asList(
+                new ParameterValue("param1", "value"),
+                new ParameterValue("param2", "value"));
+        assertTrue(testMethod1.matchValue("testMethod", twoValues) < 0);
+        assertEquals(1, testMethod2.matchValue("testMethod", twoValues));
+        assertEquals(1, testMethod3.matchValue("testMethod", twoValues));
+        assertEquals(1, testMethod4.matchValue("testMethod", twoValues));
+        assertEquals(3, testMethod4.matchValue("testMethod", Collections.emptyList()));
+
+        List<InvokableMethod> methods = Arrays.asList(testMethod4, testMethod3, testMethod2, testMethod1);
+        Collections.sort(methods, new InvokableMethod.Comparator("testMethod", twoValues));
+        assertEquals(testMethod2, methods.get(0));
+        assertEquals(testMethod1, methods.get(3));
+    }
+
+    @Test
+    public void testSlots() throws Exception {
+        assertEquals(3, testMethod3.getParameterCount());
+        for(NamedParameter parameter : testMethod3.getParameters()){
+            assertEquals(parameter.getSlot(), testMethod3.slotOf(parameter.getName()));
+        }
+        assertEquals(0, testMethod3.slotOf("param1"));
+        assertEquals(2, testMethod3.slotOf("param3"));
+        assertEquals(-1, testMethod3.slotOf("param4"));
+        assertEquals("testMethod3", testMethod3.invoke(new MatchTestClass(), Arrays.asList(
+                new ParameterValue("param3", "value"),
+                new ParameterValue("unknown", "value"),
+                new ParameterValue("param1", "value"))));
+
+        String[] names = new String[100];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "param" + i;
+        }
+        SlotTable table = new SlotTable(names);
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(i, table.slotOf(names[i]));
+        }
+        assertEquals(-1, table.slotOf("param100"));
+        assertEquals(-1, new SlotTable(new String[0]).slotOf("param0"));
+    }
+
     @Test
     public void testSort(){
 
@@ -0,0 +1,147 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.ParameterValue;
+import net.kebernet.invoker.runtime.TypeCoercion;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OverloadsTest {
+
+    private static final String[] NAMES = {"id", "query", "limit", "offset", "fields", "slug"};
+    private static final Class[] TYPES = {String.class, Integer.class, null};
+
+    @Test
+    public void matchesScoring() {
+        for(Class type : Arrays.asList(VerbTestClass.class, MatchTestClass.class, OverloadWithDifferentLength.class,
+                RequiredPriorityTestClass.class)){
+            IntrospectionData data = new IntrospectionData(type, InvokerOptions.defaults());
+            for(InvokableMethod method : data.getMethods()){
+                String name = method.getName();
+                Overloads overloads = new Overloads(data.getMethods(name).toArray(new InvokableMethod[0]), InvokerOptions.defaults());
+                assertTrue(overloads.isCompiled());
+                for(ParameterShape shape : shapes(names(data.getMethods(name)))){
+                    assertEquals(name + " " + describe(shape), best(data.getMethods(name), name, shape), overloads.resolve(name, shape));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resolves() {
+        IntrospectionData data = new IntrospectionData(VerbTestClass.class, InvokerOptions.defaults());
+        Overloads overloads = new Overloads(data.getMethods("GET").toArray(new InvokableMethod[0]), InvokerOptions.defaults());
+        assertEquals("list", resolve(overloads, new String[0], new Class[0]));
+        assertEquals("byId", resolve(overloads, new String[]{"id"}, new Class[]{String.class}));
+        assertEquals("byNumber", resolve(overloads, new String[]{"id"}, new Class[]{Integer.class}));
+        assertEquals("anything", resolve(overloads, new String[]{"id"}, new Class[]{Long.class}));
+        assertEquals("byIdAndFields", resolve(overloads, new String[]{"fields", "id"}, new Class[]{String.class, String.class}));
+        assertEquals("page", resolve(overloads, new String[]{"offset"}, new Class[]{Integer.class}));
+        assertEquals("anything", resolve(overloads, new String[]{"id"}, new Class[]{null}));
+        assertNull(overloads.resolve("GET", ParameterShape.of(new String[]{"unknown"}, new Class[]{String.class})));
+        // A repeated name is left to scoring, where the last value wins.
+        assertEquals("byNumber", overloads.resolve("GET", ParameterShape.of(
+                new String[]{"id", "id"}, new Class[]{String.class, Integer.class})).getNativeMethod().getName());
+    }
+
+    @Test
+    public void requiredParametersBeforeDistance() {
+        IntrospectionData data = new IntrospectionData(RequiredPriorityTestClass.class, InvokerOptions.defaults());
+        Overloads overloads = new Overloads(data.getMethods("testMethod").toArray(new InvokableMethod[0]), InvokerOptions.defaults());
+        assertTrue(overloads.isCompiled());
+        // Fewest parameters first would pick optional(p1, p2) here.
+        assertEquals("strict", overloads.resolve("testMethod", ParameterShape.of(
+                new String[]{"p1"}, new Class[]{String.class})).getMethodName());
+        assertEquals("optional", overloads.resolve("testMethod", ParameterShape.of(
+                new String[]{"p2", "p1"}, new Class[]{String.class, String.class})).getMethodName());
+        assertEquals("strict", data.bestMatch("testMethod", Collections.singletonList(
+                new ParameterValue("p1", "value"))).orElseThrow(RuntimeException::new).getMethodName());
+    }
+
+    @Test
+    public void coercionIsScored() {
+        InvokerOptions options = InvokerOptions.builder().coercion(TypeCoercion.defaults()).build();
+        IntrospectionData data = new IntrospectionData(VerbTestClass.class, options);
+        Overloads overloads = new Overloads(data.getMethods("GET").toArray(new InvokableMethod[0]), options);
+        assertFalse(overloads.isCompiled());
+        assertEquals("byId", resolve(overloads, new String[]{"id"}, new Class[]{String.class}));
+    }
+
+    private static String resolve(Overloads overloads, String[] names, Class[] types) {
+        InvokableMethod method = overloads.resolve("GET", ParameterShape.of(names, types));
+        return method == null ? null : method.getNativeMethod().getName();
+    }
+
+    private static InvokableMethod best(List<InvokableMethod> methods, String name, ParameterShape shape) {
+        List<InvokableMethod> sorted = new ArrayList<>(methods);
+        sorted.sort(new InvokableMethod.Comparator(name, shape));
+        return sorted.get(0).matchShape(name, shape) < 0 ? null : sorted.get(0);
+    }
+
+    static List<String> names(List<InvokableMethod> methods) {
+        List<String> names = new ArrayList<>(Arrays.asList(NAMES));
+        methods.forEach(m -> m.getParameters().forEach(p -> {
+            if(!names.contains(p.getName())){
+                names.add(p.getName());
+            }
+        }));
+        return names;
+    }
+
+    /**
+     * Every combination of each name being absent or having a value of each type, in two orders.
+     */
+    static List<ParameterShape> shapes(List<String> names) {
+        List<ParameterShape> shapes = new ArrayList<>();
+        int states = TYPES.length + 1;
+        int combinations = (int) Math.pow(states, names.size());
+        for (int c = 0; c < combinations; c++) {
+            List<String> shapeNames = new ArrayList<>();
+            List<Class> shapeTypes = new ArrayList<>();
+            for (int i = 0, remainder = c; i < names.size(); i++, remainder /= states) {
+                int state = remainder % states;
+                if(state > 0){
+                    shapeNames.add(names.get(i));
+                    shapeTypes.add(TYPES[state - 1]);
+                }
+            }
+            shapes.add(ParameterShape.of(shapeNames.toArray(new String[0]), shapeTypes.toArray(new Class[0])));
+            Collections.reverse(shapeNames);
+            Collections.reverse(shapeTypes);
+            shapes.add(ParameterShape.of(shapeNames.toArray(new String[0]), shapeTypes.toArray(new Class[0])));
+        }
+        return shapes;
+    }
+
+    static String describe(ParameterShape shape) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < shape.size(); i++) {
+            description.append(shape.getName(i)).append('=').append(shape.getType(i)).append(' ');
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.annotation.Parameter;
+
+/**
+ * Two overloads where the one with more required parameters is not the closest match.
+ */
+public class RequiredPriorityTestClass {
+
+    @Invokable(invocationName = "testMethod")
+    public String optional(@Parameter(value = "p1", required = false) String p1,
+                           @Parameter(value = "p2", required = false) String p2) {
+        return "optional";
+    }
+
+    @Invokable(invocationName = "testMethod")
+    public String strict(@Parameter("p1") String p1,
+                         @Parameter(value = "p2", required = false) String p2,
+                         @Parameter(value = "p3", required = false) String p3,
+                         @Parameter(value = "p4", required = false) String p4) {
+        return "strict";
+    }
+}
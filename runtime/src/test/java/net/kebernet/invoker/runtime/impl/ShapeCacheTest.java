@@ -0,0 +1,83 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.runtime.ParameterValue;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShapeCacheTest extends AbstractMatchTest {
+
+    @Test
+    public void testShapes() {
+        ShapeCache<Integer> cache = new ShapeCache<>(16);
+        assertNull(cache.get(null, ParameterShape.of(values1)));
+        cache.put(null, ParameterShape.of(values1), 0);
+        cache.put(null, ParameterShape.of(values2), -1);
+        assertEquals(Integer.valueOf(0), cache.get(null, ParameterShape.of(values1)));
+        assertEquals(Integer.valueOf(-1), cache.get(null, ParameterShape.of(values2)));
+        // Same shape, different values
+        assertEquals(Integer.valueOf(0), cache.get(null, ParameterShape.of(
+                new String[]{"param1", "param2", "param3"},
+                new Class[]{String.class, String.class, String.class})));
+        // Different order is a different shape
+        assertNull(cache.get(null, ParameterShape.of(Arrays.asList(
+                new ParameterValue("param2", "value"),
+                new ParameterValue("param1", "value"),
+                new ParameterValue("param3", "value")))));
+        // Names are part of the key
+        assertNull(cache.get("testMethod", ParameterShape.of(values1)));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals(ShapeCache.fingerprint(null, ParameterShape.of(values1)), ShapeCache.fingerprint(null, ParameterShape.of(values1)));
+        assertNotEquals(ShapeCache.fingerprint(null, ParameterShape.of(values1)), ShapeCache.fingerprint(null, ParameterShape.of(values2)));
+        assertNotEquals(ShapeCache.fingerprint(null, ParameterShape.of(values3)), ShapeCache.fingerprint(null, ParameterShape.of(values4)));
+        assertNotEquals(ShapeCache.fingerprint("a", ParameterShape.of(values1)), ShapeCache.fingerprint("b", ParameterShape.of(values1)));
+    }
+
+    @Test
+    public void testBounded() {
+        ShapeCache<Integer> cache = new ShapeCache<>(4);
+        assertEquals(4, cache.getCapacity());
+        for (int i = 0; i < 100; i++) {
+            ParameterShape values = ParameterShape.of(Collections.singletonList(new ParameterValue("param" + i, i)));
+            cache.put(null, values, i);
+            assertEquals(Integer.valueOf(i), cache.get(null, values));
+        }
+        assertTrue(cache.getEvictionCount() >= 96);
+        cache.clear();
+        assertNull(cache.get(null, ParameterShape.of(new String[]{"param99"}, new Class[]{Integer.class})));
+    }
+
+    @Test
+    public void testMethodMemoization() {
+        assertEquals(0, testMethod1.matchValue("testMethod", values1));
+        assertEquals(0, testMethod1.matchValue("testMethod", values1));
+        assertEquals(1, testMethod1.getMemoizations().getHitCount());
+        assertEquals(1, testMethod1.getMemoizations().getMissCount());
+    }
+}
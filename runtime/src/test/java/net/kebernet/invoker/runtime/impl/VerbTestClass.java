@@ -0,0 +1,81 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.impl;
+
+import net.kebernet.invoker.annotation.Invokable;
+import net.kebernet.invoker.annotation.Parameter;
+
+/**
+ * Many overloads of one invocation name, in the style of a REST resource.
+ */
+public class VerbTestClass {
+
+    @Invokable(invocationName = "GET")
+    public String list() {
+        return "list";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String page(@Parameter(value = "limit", required = false) Integer limit,
+                       @Parameter(value = "offset", required = false) Integer offset) {
+        return "page";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String byId(@Parameter("id") String id) {
+        return "byId";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String byNumber(@Parameter("id") Integer id) {
+        return "byNumber";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String byIdWithFields(@Parameter("id") String id, @Parameter(value = "fields", required = false) CharSequence fields) {
+        return "byIdWithFields";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String byIdAndFields(@Parameter("id") String id, @Parameter("fields") String fields) {
+        return "byIdAndFields";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String search(@Parameter("query") CharSequence query,
+                         @Parameter(value = "limit", required = false) Integer limit) {
+        return "search";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String searchPage(@Parameter("query") String query,
+                             @Parameter(value = "limit", required = false) Integer limit,
+                             @Parameter(value = "offset", required = false) Integer offset) {
+        return "searchPage";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String anything(@Parameter(value = "id", required = false) Object id,
+                           @Parameter(value = "query", required = false) Object query,
+                           @Parameter(value = "fields", required = false) Object fields) {
+        return "anything";
+    }
+
+    @Invokable(invocationName = "GET")
+    public String bySlug(@Parameter("slug") String slug, @Parameter(value = "fields", required = false) String fields) {
+        return "bySlug";
+    }
+}
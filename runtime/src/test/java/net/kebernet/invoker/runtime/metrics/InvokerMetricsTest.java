@@ -0,0 +1,212 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+import net.kebernet.invoker.runtime.BoundInvocation;
+import net.kebernet.invoker.runtime.InvocationEngine;
+import net.kebernet.invoker.runtime.InvocationRequest;
+import net.kebernet.invoker.runtime.InvocationResult;
+import net.kebernet.invoker.runtime.Invoker;
+import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.InvokerTest.EngineTestClass;
+import net.kebernet.invoker.runtime.ParameterValue;
+import net.kebernet.invoker.runtime.TypeCoercion;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InvokerMetricsTest {
+
+    @Test
+    public void recordsInvocations() throws InvokerException {
+        InvokerMetrics metrics = new InvokerMetrics();
+        Invoker invoker = new Invoker(InvokerOptions.builder()
+                .listener(metrics)
+                .build());
+        invoker.registerType(EngineTestClass.class);
+        EngineTestClass target = new EngineTestClass();
+        List<ParameterValue> values = Arrays.asList(
+                new ParameterValue("first", "a"),
+                new ParameterValue("second", "b"));
+        for (int i = 0; i < 10; i++) {
+            assertEquals("ab", invoker.invoke(target, "concat", values));
+        }
+        BoundInvocation bound = invoker.bind(EngineTestClass.class, "concat",
+                new String[]{"first", "second"}, new Class[]{String.class, String.class});
+        assertEquals("ab", bound.invoke(target, "a", "b"));
+        try {
+            invoker.invoke(target, "fail", Collections.singletonList(new ParameterValue("message", "boom")));
+            fail("Expected an InvokerException");
+        } catch (InvokerException e) {
+            // expected
+        }
+        try {
+            invoker.invoke(target, "concat", Collections.singletonList(new ParameterValue("third", "c")));
+            fail("Expected an InvokerException");
+        } catch (InvokerException e) {
+            // expected
+        }
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                invoker.invoke(target, "missing" + i, values);
+                fail("Expected an InvokerException");
+            } catch (InvokerException e) {
+                // expected
+            }
+        }
+
+        TypeMetrics type = metrics.getType(EngineTestClass.class);
+        assertNotNull(type);
+        assertEquals(1, type.getIntrospectionCount());
+        // Names that match no method are only counted per type.
+        assertEquals(3, type.getUnmatchedCount());
+        assertNull(metrics.getInvocation(EngineTestClass.class, "missing0"));
+        assertTrue(type.getLastIntrospectionNanos() > 0);
+
+        InvocationMetrics concat = metrics.getInvocation(EngineTestClass.class, "concat");
+        assertNotNull(concat);
+        assertEquals(11, concat.getInvocationCount());
+        assertEquals(1, concat.getErrorCount());
+        assertEquals(1, concat.getNoMatchCount());
+        assertEquals(9, concat.getResolutionHitCount());
+        assertEquals(2, concat.getResolutionMissCount());
+        assertEquals(9.0 / 11, concat.getResolutionHitRatio(), 0.0001);
+        assertEquals(11, concat.getResolutionLatency().getCount());
+
+        InvocationMetrics failed = metrics.getInvocation(EngineTestClass.class, "fail");
+        assertNotNull(failed);
+        assertEquals(0, failed.getInvocationCount());
+        assertEquals(1, failed.getErrorCount());
+        assertEquals(2, type.getErrorCount());
+
+        // Typed invocations are reported the same way.
+        assertEquals(42L, invoker.invokeLong(target, "increment", Collections.singletonList(new ParameterValue("value", 41L))));
+        InvocationMetrics increment = metrics.getInvocation(EngineTestClass.class, "increment");
+        assertNotNull(increment);
+        assertEquals(1, increment.getInvocationCount());
+        assertEquals(1, increment.getResolutionLatency().getCount());
+    }
+
+    @Test
+    public void recordsBatches() {
+        InvokerMetrics metrics = new InvokerMetrics();
+        Invoker invoker = new Invoker(InvokerOptions.builder()
+                .listener(metrics)
+                .build());
+        EngineTestClass target = new EngineTestClass();
+        List<InvocationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(new InvocationRequest(target, "concat", Arrays.asList(
+                    new ParameterValue("first", "a"),
+                    new ParameterValue("second", Integer.toString(i)))));
+            requests.add(new InvocationRequest(target, "missing", Collections.emptyList()));
+        }
+        List<InvocationResult<Object>> results = invoker.invokeAll(requests);
+        assertEquals(20, results.size());
+
+        // Each group is resolved, and reported, once; each request is reported when it fails or returns.
+        InvocationMetrics concat = metrics.getInvocation(EngineTestClass.class, "concat");
+        assertNotNull(concat);
+        assertEquals(1, concat.getResolutionMissCount());
+        assertEquals(0, concat.getResolutionHitCount());
+        assertEquals(10, concat.getInvocationCount());
+        TypeMetrics type = metrics.getType(EngineTestClass.class);
+        assertNotNull(type);
+        assertEquals(1, type.getUnmatchedCount());
+    }
+
+    @Test
+    public void recordsReflectionFailures() {
+        InvokerMetrics metrics = new InvokerMetrics();
+        Invoker invoker = new Invoker(InvokerOptions.builder()
+                .invocationEngine(InvocationEngine.REFLECTION)
+                .coercion(TypeCoercion.builder()
+                        .register(String.class, Integer.class, 1, s -> s.isEmpty() ? null : Integer.valueOf(s))
+                        .build())
+                .listener(metrics)
+                .build());
+        try {
+            // Method.invoke rejects the null for an int with an unwrapped IllegalArgumentException.
+            invoker.invoke(new EngineTestClass(), "store", Collections.singletonList(new ParameterValue("value", "")));
+            fail("Expected an InvokerException");
+        } catch (InvokerException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        InvocationMetrics store = metrics.getInvocation(EngineTestClass.class, "store");
+        assertNotNull(store);
+        assertEquals(1, store.getErrorCount());
+    }
+
+    @Test
+    public void histogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        histogram.record(-1);
+        assertEquals(101, histogram.getCount());
+        assertEquals(100000, histogram.getMax());
+        long median = histogram.getPercentile(50);
+        assertTrue("median "+median, median >= 50000 && median < 100000);
+        assertEquals(100000, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void jmxExporter() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        InvokerMetrics metrics = new InvokerMetrics();
+        Invoker invoker = new Invoker(InvokerOptions.builder()
+                .listener(metrics)
+                .build());
+        invoker.registerType(EngineTestClass.class);
+        try(JmxExporter exporter = new JmxExporter(metrics, server, "test")){
+            ObjectName type = exporter.getName(EngineTestClass.class);
+            assertTrue(server.isRegistered(type));
+            assertEquals(1L, server.getAttribute(type, "IntrospectionCount"));
+
+            invoker.invoke(new EngineTestClass(), "increment", Collections.singletonList(new ParameterValue("value", 1L)));
+            ObjectName increment = exporter.getName(EngineTestClass.class, "increment");
+            // Registration is left to the readers rather than the invocation.
+            assertFalse(server.isRegistered(increment));
+            assertEquals(1L, server.getAttribute(type, "InvocationCount"));
+            assertTrue(server.isRegistered(increment));
+            assertEquals(1L, server.getAttribute(increment, "InvocationCount"));
+            assertEquals(0.0, server.getAttribute(increment, "ResolutionHitRatio"));
+            exporter.close();
+            assertFalse(server.isRegistered(type));
+            assertFalse(server.isRegistered(increment));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *    Copyright (c) 2016 Robert Cooper
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package net.kebernet.invoker.runtime.metrics;
+
+import net.kebernet.invoker.runtime.ArgumentFrame;
+import net.kebernet.invoker.runtime.BoundInvocation;
+import net.kebernet.invoker.runtime.Invoker;
+import net.kebernet.invoker.runtime.InvokerException;
+import net.kebernet.invoker.runtime.InvokerOptions;
+import net.kebernet.invoker.runtime.InvokerTest.EngineTestClass;
+import net.kebernet.invoker.runtime.ParameterValue;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SlowInvocationSamplerTest {
+
+    @Test
+    public void ringBuffer() throws InvokerException {
+        SlowInvocationSampler sampler = new SlowInvocationSampler(Duration.ZERO, 2);
+        Invoker invoker = new Invoker(InvokerOptions.builder()
+                .slowInvocationSampler(sampler)
+                .build());
+        EngineTestClass target = new EngineTestClass();
+        invoker.invoke(target, "concat", Arrays.asList(
+                new ParameterValue("second", "b"),
+                new ParameterValue("first", "a")));
+        try {
+            invoker.invoke(target, "fail", Collections.singletonList(new ParameterValue("message", "secret")));
+            fail("Expected an InvokerException");
+        } catch (InvokerException e) {
+            // expected
+        }
+        BoundInvocation bound = invoker.bind(EngineTestClass.class, "concat",
+                new String[]{"second", "first"}, new Class[]{String.class, String.class});
+        bound.invoke(target, "b", "a");
+
+        assertEquals(3, sampler.getRecordedCount());
+        List<SlowInvocation> samples = sampler.getSamples();
+        assertEquals(2, samples.size());
+
+        SlowInvocation failed = samples.get(0);
+        assertEquals(EngineTestClass.class, failed.getType());
+        assertEquals("fail", failed.getInvocationName());
+        assertEquals(Collections.singletonList("message"), failed.getParameterNames());
+        assertEquals(String.class, failed.getParameterType(0));
+        assertTrue(failed.isFailed());
+        assertTrue(failed.getResolutionNanos() > 0);
+        assertFalse(failed.toString().contains("secret"));
+
+        // Bound invocations skip resolution and report the arguments in parameter order.
+        SlowInvocation boundSample = samples.get(1);
+        assertEquals("concat", boundSample.getInvocationName());
+        assertEquals(Arrays.asList("first", "second"), boundSample.getParameterNames());
+        assertEquals(0, boundSample.getResolutionNanos());
+        assertFalse(boundSample.isFailed());
+
+        sampler.clear();
+        assertTrue(sampler.getSamples().isEmpty());
+    }
+
+    @Test
+    public void concurrentRecording() throws Exception {
+        SlowInvocationSampler sampler = new SlowInvocationSampler(Duration.ZERO, 8);
+        ArgumentFrame shape = new ArgumentFrame();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        sampler.record(EngineTestClass.class, "concat", shape, 1, 1, false);
+                    }
+                }));
+            }
+            while(writers.stream().anyMatch(f -> !f.isDone())){
+                // Each trace comes from the lap being read, so the sequences only go up.
+                long previous = -1;
+                for(SlowInvocation sample : sampler.getSamples()){
+                    assertTrue(sample.sequence > previous);
+                    previous = sample.sequence;
+                }
+            }
+            for(Future<?> writer : writers){
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(80000, sampler.getRecordedCount());
+        List<SlowInvocation> samples = sampler.getSamples();
+        assertEquals(8, samples.size());
+        for (int i = 0; i < samples.size(); i++) {
+            assertEquals(80000 - 8 + i, samples.get(i).sequence);
+        }
+    }
+
+    @Test
+    public void threshold() throws InvokerException {
+        SlowInvocationSampler sampler = new SlowInvocationSampler(Duration.ofDays(1), 16);
+        Invoker invoker = new Invoker(InvokerOptions.builder()
+                .slowInvocationSampler(sampler)
+                .build());
+        List<ParameterValue> values = Arrays.asList(
+                new ParameterValue("first", "a"),
+                new ParameterValue("second", "b"));
+        assertEquals("ab", invoker.invoke(new EngineTestClass(), "concat", values));
+        assertEquals(0, sampler.getRecordedCount());
+        assertTrue(sampler.getSamples().isEmpty());
+    }
+}